@@ -3,8 +3,9 @@ package ca.techgarage.scrubians;
 import ca.techgarage.bscm.Bscm;
 import ca.techgarage.scrubians.commands.*;
 import ca.techgarage.scrubians.dialogue.DialogueActionCommand;
-import ca.techgarage.scrubians.events.ChunkLoadCleanup;
-import ca.techgarage.scrubians.events.ViolentNpcChunkCleanup;
+import ca.techgarage.scrubians.events.ChunkCleanupScheduler;
+import ca.techgarage.scrubians.events.NpcRegistryChangeCallback;
+import ca.techgarage.scrubians.events.StrayMannequinCleanup;
 import ca.techgarage.scrubians.npcs.*;
 import ca.techgarage.scrubians.npcs.violent.ViolentNpcEntity;
 import ca.techgarage.scrubians.npcs.violent.ViolentNpcEntityRegistration;
@@ -17,26 +18,16 @@ import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerChunkEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerEntityEvents;
 import net.minecraft.server.world.ServerWorld;
-import net.minecraft.util.math.ChunkPos;
-import net.minecraft.world.chunk.WorldChunk;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import java.io.File;
-
-import ca.techgarage.scrubians.commands.NpcKillInvalidCommand;
-
-import static ca.techgarage.scrubians.commands.NpcRespawnCommand.respawnAllOnServerStart;
 
 public class Scrubians implements ModInitializer {
 
     public static final String MOD_ID = "scrubians";
     private static final Logger LOGGER = LoggerFactory.getLogger(MOD_ID);
     public static final boolean DEVELOPER_MODE = true;
-    private static int cleanupTickCounter = 0;
-    private static int respawnTickCounter = -60;
-
-    private static boolean hasSpawnedNPCsOnStartup = false;
 
     @Override
     public void onInitialize() {
@@ -55,10 +46,13 @@ public class Scrubians implements ModInitializer {
         CommandRegistrationCallback.EVENT.register((dispatcher, registryAccess, environment) -> NpcDiagnoseCommand.register(dispatcher));
         CommandRegistrationCallback.EVENT.register((dispatcher, registryAccess, environment) -> NpcCleanupJsonCommand.register(dispatcher));
         CommandRegistrationCallback.EVENT.register((dispatcher, registryAccess, environment) -> CleanupStatsCommand.register(dispatcher));
+        CommandRegistrationCallback.EVENT.register((dispatcher, registryAccess, environment) -> SchedulerStatsCommand.register(dispatcher));
         CommandRegistrationCallback.EVENT.register((dispatcher, registryAccess, environment) -> NpcKillInvalidCommand.register(dispatcher));
         CommandRegistrationCallback.EVENT.register((dispatcher, registryAccess, environment) -> NpcHelpCommand.register(dispatcher));
         CommandRegistrationCallback.EVENT.register((dispatcher, registryAccess, environment) -> NpcRemoveCommand.register(dispatcher));
         CommandRegistrationCallback.EVENT.register((dispatcher, registryAccess, environment) -> NpcReloadCommand.register(dispatcher));
+        CommandRegistrationCallback.EVENT.register((dispatcher, registryAccess, environment) -> NpcBenchmarkCommand.register(dispatcher));
+        CommandRegistrationCallback.EVENT.register((dispatcher, registryAccess, environment) -> NpcStorageCommand.register(dispatcher));
 
 
         ViolentNpcEntityRegistration.register();
@@ -69,93 +63,82 @@ public class Scrubians implements ModInitializer {
             CommandRegistrationCallback.EVENT.register(SpawnViolentNpcCommand::register);
 
 
-        ServerLifecycleEvents.SERVER_STARTED.register(server -> {
-            File serverRoot = new File(".").getAbsoluteFile();
-            logger("[Scrubians] Server root directory: " + serverRoot.getAbsolutePath());
-            NpcRegistry.init(serverRoot);
-
-                ViolentNpcRegistry.init(serverRoot);
-
-
-            // Clean up and respawn NPCs after a short delay
-            server.execute(() -> {
-                try {
-                    Thread.sleep(1000);
-                    logger("[Scrubians] Starting NPC initialization on server start");
-
-                    for (ServerWorld world : server.getWorlds()) {
-
-                        ViolentNpcTracker.initializeAllNpcs(world);
-                        respawnAllOnServerStart(world);
-                    }
-                    hasSpawnedNPCsOnStartup = true;
-                    logger("[Scrubians] NPC initialization complete");
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-            });
-        });
+        // Registries load off the server thread; NPCs are then brought up over the following ticks
+        ServerLifecycleEvents.SERVER_STARTED.register(StartupOrchestrator::start);
 
         // Chunk load/unload events
         ServerChunkEvents.CHUNK_LOAD.register((world, chunk) -> {
-            LoadedChunkTracker.onLoad(world, chunk);
-            ChunkLoadCleanup.onChunkLoad(world, chunk);
-            ViolentNpcChunkCleanup.onChunkLoad(world, chunk);
+            NpcRegistry.onChunkLoad(chunk.getPos());
+            // Entities usually arrive after their chunk, so cleanup is queued rather than run here
+            ChunkCleanupScheduler.onChunkLoad(world, chunk);
+            // Missing NPCs that live here appear once the chunk's entities have loaded
+            NpcReconciler.onChunkLoad(world, chunk);
         });
 
-        ServerChunkEvents.CHUNK_UNLOAD.register(LoadedChunkTracker::onUnload);
-
-        ServerTickEvents.START_SERVER_TICK.register(server -> {
-                for (ServerWorld world : server.getWorlds()) {
-                    ViolentNpcEntity.tickFireImmunity(world);
-                    ViolentNpcTracker.tick(world);
-                }
+        ServerChunkEvents.CHUNK_UNLOAD.register(ChunkCleanupScheduler::onChunkUnload);
+        ServerChunkEvents.CHUNK_UNLOAD.register(NpcReconciler::onChunkUnload);
+
+        // Entity load/unload keeps the npcId -> mannequin index current
+        ServerEntityEvents.ENTITY_LOAD.register(NpcEntityIndex::onEntityLoad);
+        ServerEntityEvents.ENTITY_UNLOAD.register(NpcEntityIndex::onEntityUnload);
+        // Registered after the index so it sees the index already updated
+        ServerEntityEvents.ENTITY_LOAD.register(NpcReconciler::onEntityLoad);
+        ServerEntityEvents.ENTITY_UNLOAD.register(NpcReconciler::onEntityUnload);
+        // Plain mannequins are removed once as they load instead of by a periodic sweep
+        ServerEntityEvents.ENTITY_LOAD.register(StrayMannequinCleanup::onEntityLoad);
+        // Chunks are revisited by the cleanup scheduler only when an NPC entity enters them
+        ServerEntityEvents.ENTITY_LOAD.register(ChunkCleanupScheduler::onEntityLoad);
+        ServerEntityEvents.ENTITY_LOAD.register(StartupOrchestrator::onEntityLoad);
+
+        // Registry edits reach loaded mannequins straight away (removals despawn them)
+        NpcRegistryChangeCallback.EVENT.register(TrackingMannequinEntity::onRegistryChange);
+
+        // All periodic work runs from the scheduler, in this order, under one per-tick budget
+        // (the violent NPC tasks were registered by ViolentNpcEntityRegistration above)
+        ScrubiansScheduler.register("stray-mannequins", 1, server -> StrayMannequinCleanup.tick());
+        ScrubiansScheduler.registerBudgeted("chunk-cleanup", 1, ChunkCleanupScheduler::tick);
+        ScrubiansScheduler.registerBudgeted("npc-reconciler", 1, NpcReconciler::tick);
+        // Every tick, but each mannequin only searches once per NpcLookTargets.INTERVAL on its own phase
+        ScrubiansScheduler.registerBudgeted("npc-look-targets", 1, NpcLookTargets::tick);
+        // Apply this tick's mannequin moves before deciding whether to save
+        ScrubiansScheduler.register("position-sync", 1, server -> NpcPositionSync.flush());
+        // Cheap: only hands a snapshot to the I/O thread when something changed
+        ScrubiansScheduler.register("registry-save", 1, server -> {
+            NpcRegistry.tickSave();
+            ViolentNpcRegistry.tickSave();
         });
 
         ServerTickEvents.END_SERVER_TICK.register(server -> {
-            cleanupTickCounter++;
-            respawnTickCounter++;
-            if (respawnTickCounter >= 20 ) {
-                respawnTickCounter = 0;
-                for (ServerWorld world : server.getWorlds()) {
-                    NpcRespawnCommand.serverRespawnAll(world);
-                }
-            }
-            // Run cleanup every 2 seconds (40 ticks)
-            if (cleanupTickCounter >= 40) {
-                cleanupTickCounter = 0;
-
-                // Kill invalid NPCs
-                for (ServerWorld world : server.getWorlds()) {
-                    NpcKillInvalidCommand.killInvalidNPCs(world);
-                }
-
-                // Run chunk cleanup
-                for (ServerWorld world : server.getWorlds()) {
-                    for (long pos : LoadedChunkTracker.getLoadedChunks()) {
-                        WorldChunk chunk = world.getChunkManager().getWorldChunk(
-                                ChunkPos.getPackedX(pos),
-                                ChunkPos.getPackedZ(pos)
-                        );
-
-                        if (chunk != null) {
-                            ChunkLoadCleanup.onChunkLoad(world, chunk);
-                            ViolentNpcChunkCleanup.onChunkLoad(world, chunk);
-                        }
-                    }
-                }
+            StartupOrchestrator.tick(server);
+            // Periodic work needs the registries, so it waits until they have loaded
+            if (StartupOrchestrator.isLoaded()) {
+                ScrubiansScheduler.tick(server);
             }
         });
 
         ServerLifecycleEvents.SERVER_STOPPING.register(server -> {
+            // Install registries still loading so they are saved as read; if loading failed there is nothing to save
+            StartupOrchestrator.awaitLoad();
+            if (!StartupOrchestrator.isLoaded()) return;
             logger("[Scrubians] Server stopping, despawning violent NPCs...");
 
             for (ServerWorld world : server.getWorlds()) {
                 ViolentNpcTracker.despawnAllViolentNpcs(world);
             }
 
-            NpcRegistry.forceSave();
-            ViolentNpcRegistry.forceSave();
+            // Block until the background writer has everything on disk
+            NpcPositionSync.flush();
+            NpcRegistry.flush();
+            ViolentNpcRegistry.flush();
+        });
+
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+            NpcEntityIndex.clear();
+            NpcReconciler.clear();
+            NpcLookTargets.clear();
+            ChunkCleanupScheduler.clear();
+            ScrubiansScheduler.reset();
+            StartupOrchestrator.reset();
         });
 
 
@@ -16,4 +16,25 @@ public class ScrubiansConfig {
     @Comment("Display something at all times on right-click")
     public static boolean npcHasNothingtoSayMessage = true;
 
+    @Comment("How NPC data is stored: json (full rewrite on save), journal (append changes, compact periodically), binary (compact, export with /npc storage export) or sharded (binary, per-region files loaded on demand)")
+    public static String npcStorageMode = "json";
+
+    @Comment("Journal records to collect before folding them back into the main file {int [min: 1]}")
+    public static int journalCompactionThreshold = 500;
+
+    @Comment("Sharded storage: seconds a region can go unused before its NPC dialogue, paths and trades are unloaded {int [min: 30]}")
+    public static int shardIdleSeconds = 300;
+
+    @Comment("Distance in hundredths of a block an NPC must move before its new position is saved; crossing into another chunk always saves {int [min: 0]}")
+    public static int positionSyncMinMove = 50;
+
+    @Comment("Most chunks the NPC cleanup checks per tick {int [min: 1]}")
+    public static int chunkCleanupChunksPerTick = 16;
+
+    @Comment("Milliseconds per tick the NPC chunk cleanup may use {int [min: 1]}")
+    public static int chunkCleanupBudgetMs = 2;
+
+    @Comment("Milliseconds per tick all Scrubians periodic work may use together; unfinished work carries over to the next tick {int [min: 1]}")
+    public static int schedulerBudgetMs = 5;
+
 }
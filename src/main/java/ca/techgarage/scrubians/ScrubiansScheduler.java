@@ -0,0 +1,184 @@
+package ca.techgarage.scrubians;
+
+import net.minecraft.server.MinecraftServer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Runs all of Scrubians' periodic server work from one place.
+ *
+ * Each task has a cadence in ticks. Once per server tick the due tasks run in
+ * registration order until {@link ScrubiansConfig#schedulerBudgetMs} is used up. Tasks
+ * that did not get to run, and budgeted tasks that report unfinished work, are carried
+ * over and run first on the next tick. At least one task runs every tick, so nothing
+ * starves. Server thread only.
+ */
+public final class ScrubiansScheduler {
+
+    /**
+     * Work that can stop early and continue on the next tick.
+     */
+    @FunctionalInterface
+    public interface BudgetedTask {
+        /**
+         * @param deadline {@link System#nanoTime()} value to stop at
+         * @return true when done until the next cadence, false to continue next tick
+         */
+        boolean run(MinecraftServer server, long deadline);
+    }
+
+    /**
+     * Snapshot of one task's counters, for diagnostics.
+     */
+    public record TaskStats(String name, int intervalTicks, long runs, long deferrals, boolean carried,
+                            long lastNanos, long totalNanos) {
+    }
+
+    private static final class Task {
+        final String name;
+        final int interval;
+        final BudgetedTask work;
+        long nextRun;
+        boolean carried;
+        long runs;
+        long deferrals;
+        long lastNanos;
+        long totalNanos;
+
+        Task(String name, int interval, BudgetedTask work) {
+            this.name = name;
+            this.interval = interval;
+            this.work = work;
+        }
+    }
+
+    private static final List<Task> TASKS = new ArrayList<>();
+    // Reused every tick: carried-over tasks first, then newly due ones
+    private static final List<Task> DUE = new ArrayList<>();
+
+    private static long tick = 0;
+    private static long lastTickNanos = 0;
+    private static long overBudgetTicks = 0;
+
+    private ScrubiansScheduler() {
+    }
+
+    /**
+     * Register work that always runs to completion.
+     */
+    public static void register(String name, int intervalTicks, Consumer<MinecraftServer> action) {
+        registerBudgeted(name, intervalTicks, (server, deadline) -> {
+            action.accept(server);
+            return true;
+        });
+    }
+
+    /**
+     * Register work that checks the deadline and may finish over several ticks.
+     */
+    public static void registerBudgeted(String name, int intervalTicks, BudgetedTask task) {
+        if (intervalTicks < 1) {
+            throw new IllegalArgumentException("Task " + name + " needs an interval of at least 1 tick");
+        }
+        TASKS.add(new Task(name, intervalTicks, task));
+    }
+
+    /**
+     * Run the due tasks within this tick's budget. Call once per server tick.
+     */
+    public static void tick(MinecraftServer server) {
+        tick++;
+        long start = System.nanoTime();
+        long budget = ScrubiansConfig.schedulerBudgetMs * 1_000_000L;
+        long deadline = start + budget;
+
+        DUE.clear();
+        for (Task task : TASKS) {
+            if (task.carried) DUE.add(task);
+        }
+        for (Task task : TASKS) {
+            if (!task.carried && tick >= task.nextRun) DUE.add(task);
+        }
+
+        boolean ranAny = false;
+        for (Task task : DUE) {
+            long now = System.nanoTime();
+            if (ranAny && now >= deadline) {
+                task.carried = true;
+                task.deferrals++;
+                continue;
+            }
+
+            boolean done;
+            try {
+                done = task.work.run(server, deadline);
+            } catch (RuntimeException e) {
+                Scrubians.logger("error", "[Scrubians] Scheduled task " + task.name + " failed:");
+                e.printStackTrace();
+                done = true;
+            }
+            long took = System.nanoTime() - now;
+            ranAny = true;
+            task.runs++;
+            task.lastNanos = took;
+            task.totalNanos += took;
+            task.carried = !done;
+            if (done) {
+                task.nextRun = tick + task.interval;
+            }
+        }
+        DUE.clear();
+
+        lastTickNanos = System.nanoTime() - start;
+        if (lastTickNanos > budget) overBudgetTicks++;
+    }
+
+    /**
+     * @return ticks run by the scheduler since the server started
+     */
+    public static long getTick() {
+        return tick;
+    }
+
+    /**
+     * @return nanoseconds the scheduler used on the last tick
+     */
+    public static long getLastTickNanos() {
+        return lastTickNanos;
+    }
+
+    /**
+     * @return ticks on which the scheduler went over its budget
+     */
+    public static long getOverBudgetTicks() {
+        return overBudgetTicks;
+    }
+
+    public static List<TaskStats> getStats() {
+        List<TaskStats> stats = new ArrayList<>(TASKS.size());
+        for (Task task : TASKS) {
+            stats.add(new TaskStats(task.name, task.interval, task.runs, task.deferrals, task.carried,
+                    task.lastNanos, task.totalNanos));
+        }
+        return stats;
+    }
+
+    /**
+     * Reset timing and counters between server sessions; registered tasks stay.
+     */
+    public static void reset() {
+        tick = 0;
+        lastTickNanos = 0;
+        overBudgetTicks = 0;
+        for (Task task : TASKS) {
+            task.nextRun = 0;
+            task.carried = false;
+            task.runs = 0;
+            task.deferrals = 0;
+            task.lastNanos = 0;
+            task.totalNanos = 0;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package ca.techgarage.scrubians;
+
+import ca.techgarage.scrubians.npcs.NpcEntityFactory;
+import ca.techgarage.scrubians.npcs.NpcEntityIndex;
+import ca.techgarage.scrubians.npcs.NpcReconciler;
+import ca.techgarage.scrubians.npcs.NpcRegistry;
+import ca.techgarage.scrubians.npcs.TrackingMannequinEntity;
+import ca.techgarage.scrubians.npcs.violent.ViolentNpcRegistry;
+import ca.techgarage.scrubians.npcs.violent.ViolentNpcTracker;
+import ca.techgarage.scrubians.persistence.ItemStackCache;
+import com.mojang.brigadier.Command;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.text.Text;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Brings Scrubians up after the server starts without blocking the server thread.
+ *
+ * Both registries are read in parallel on startup threads while the server keeps ticking,
+ * then installed on the server thread, so nothing else ever sees them half-loaded. Until
+ * then NPC mannequins stand still, the scheduler is paused and NPC commands and
+ * interactions are refused. Skins are then looked up concurrently, violent NPCs are
+ * initialized one world per tick, and the mannequins are spawned by the reconciler under
+ * the scheduler's per-tick budget.
+ */
+public final class StartupOrchestrator {
+
+    private enum Phase { IDLE, LOADING, FAILED, PREFETCHING, INITIALIZING, SPAWNING, DONE }
+
+    // Longest to wait for skins before spawning anyway (NPCs then look up their own skin)
+    private static final long PREFETCH_TIMEOUT_NANOS = 5_000_000_000L;
+
+    private static final ExecutorService LOADER = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "Scrubians-Startup");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final ArrayDeque<ServerWorld> WORLDS_TO_INIT = new ArrayDeque<>();
+
+    private static Phase phase = Phase.IDLE;
+    private static CompletableFuture<NpcRegistry.LoadedState> npcLoad;
+    private static CompletableFuture<ViolentNpcRegistry.LoadedState> violentLoad;
+    private static CompletableFuture<Void> prefetch;
+    private static long startNanos;
+    private static long phaseStartNanos;
+    private static long firstNpcNanos = -1;
+    private static long totalNanos = -1;
+
+    private StartupOrchestrator() {
+    }
+
+    /**
+     * Start reading the registries. Call from SERVER_STARTED.
+     */
+    public static void start(MinecraftServer server) {
+        File serverRoot = new File(".").getAbsoluteFile();
+        Scrubians.logger("[Scrubians] Server root directory: " + serverRoot.getAbsolutePath());
+
+        // Trade items decode against this server's registries
+        ItemStackCache.setRegistries(server.getRegistryManager());
+
+        startNanos = System.nanoTime();
+        phaseStartNanos = startNanos;
+        firstNpcNanos = -1;
+        totalNanos = -1;
+        phase = Phase.LOADING;
+        npcLoad = CompletableFuture.supplyAsync(() -> NpcRegistry.read(serverRoot), LOADER);
+        violentLoad = CompletableFuture.supplyAsync(() -> ViolentNpcRegistry.read(serverRoot), LOADER);
+    }
+
+    /**
+     * Advance startup by one step. Call once per server tick.
+     */
+    public static void tick(MinecraftServer server) {
+        long now = System.nanoTime();
+        switch (phase) {
+            case LOADING -> {
+                if (!npcLoad.isDone() || !violentLoad.isDone()) return;
+                if (!install(now)) return;
+
+                // Mannequins that loaded with their chunks while the registries were loading are live from now on
+                for (ServerWorld world : server.getWorlds()) {
+                    if (!NpcEntityIndex.getAll(world).isEmpty()) {
+                        recordFirstNpc(now);
+                        break;
+                    }
+                }
+
+                Set<String> skins = new HashSet<>();
+                for (NpcRegistry.NpcData npc : NpcRegistry.getAllNpcs()) {
+                    if (npc.skin != null) skins.add(npc.skin);
+                }
+                prefetch = NpcEntityFactory.prefetchSkins(server, skins);
+                enter(Phase.PREFETCHING, now);
+            }
+            case PREFETCHING -> {
+                if (!prefetch.isDone() && now - phaseStartNanos < PREFETCH_TIMEOUT_NANOS) return;
+                Scrubians.logger("[Scrubians] Skins prefetched in " + millis(now - phaseStartNanos) + " ms"
+                        + (prefetch.isDone() ? "" : " (timed out, continuing)"));
+                for (ServerWorld world : server.getWorlds()) {
+                    WORLDS_TO_INIT.add(world);
+                }
+                enter(Phase.INITIALIZING, now);
+            }
+            case INITIALIZING -> {
+                ServerWorld world = WORLDS_TO_INIT.poll();
+                if (world != null) {
+                    ViolentNpcTracker.initializeAllNpcs(world);
+                    return;
+                }
+                // Mannequins come up as their home chunks load
+                NpcReconciler.markAllMissing(server);
+                enter(Phase.SPAWNING, now);
+            }
+            case SPAWNING -> {
+                if (NpcReconciler.hasDrainableChunk(server) || NpcEntityFactory.getInFlightCount() > 0) return;
+                totalNanos = now - startNanos;
+                NpcEntityFactory.clearPrefetched();
+                enter(Phase.DONE, now);
+                Scrubians.logger("[Scrubians] NPC startup complete in " + millis(totalNanos) + " ms"
+                        + (firstNpcNanos >= 0 ? ", first NPC after " + millis(firstNpcNanos) + " ms" : ", no NPCs loaded"));
+            }
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Called from ENTITY_LOAD - records the time to the first live NPC
+     */
+    public static void onEntityLoad(Entity entity, ServerWorld world) {
+        if (firstNpcNanos < 0 && entity instanceof TrackingMannequinEntity && isLoaded()) {
+            recordFirstNpc(System.nanoTime());
+        }
+    }
+
+    /**
+     * @return true once both registries are installed and periodic work may run
+     */
+    public static boolean isLoaded() {
+        return phase != Phase.IDLE && phase != Phase.LOADING && phase != Phase.FAILED;
+    }
+
+    /**
+     * Refuse a command that uses the NPC registries until they are installed.
+     *
+     * @return true if the command was refused
+     */
+    public static boolean rejectWhileLoading(ServerCommandSource source) {
+        if (isLoaded()) return false;
+        source.sendError(Text.literal(notLoadedMessage()));
+        return true;
+    }
+
+    /**
+     * Refuse a player's NPC interaction until the registries are installed.
+     *
+     * @return true if the interaction was refused
+     */
+    public static boolean rejectWhileLoading(PlayerEntity player) {
+        if (isLoaded()) return false;
+        player.sendMessage(Text.literal(notLoadedMessage()), false);
+        return true;
+    }
+
+    /**
+     * Wrap a command so it is refused until the registries are installed.
+     */
+    public static Command<ServerCommandSource> whenLoaded(Command<ServerCommandSource> command) {
+        return ctx -> rejectWhileLoading(ctx.getSource()) ? 0 : command.run(ctx);
+    }
+
+    /**
+     * Finish a load still in progress at shutdown (call on the server thread), so the
+     * registries are saved from what was read rather than left as they were.
+     */
+    public static void awaitLoad() {
+        if (phase == Phase.LOADING && install(System.nanoTime())) {
+            enter(Phase.DONE, System.nanoTime());
+        }
+    }
+
+    public static String getPhase() {
+        return phase.name().toLowerCase();
+    }
+
+    /**
+     * @return milliseconds from server start to NPC startup complete, or -1 if not done
+     */
+    public static long getTotalMillis() {
+        return totalNanos >= 0 ? millis(totalNanos) : -1;
+    }
+
+    /**
+     * @return milliseconds from server start to the first live NPC, or -1 if none yet
+     */
+    public static long getFirstNpcMillis() {
+        return firstNpcNanos >= 0 ? millis(firstNpcNanos) : -1;
+    }
+
+    public static void reset() {
+        phase = Phase.IDLE;
+        npcLoad = null;
+        violentLoad = null;
+        prefetch = null;
+        WORLDS_TO_INIT.clear();
+        NpcEntityFactory.clearPrefetched();
+        NpcRegistry.unload();
+    }
+
+    // Waits for the reads if needed; on failure nothing is installed and NPCs stay off this session
+    private static boolean install(long now) {
+        try {
+            NpcRegistry.LoadedState npcs = npcLoad.join();
+            ViolentNpcRegistry.LoadedState violentNpcs = violentLoad.join();
+            NpcRegistry.install(npcs);
+            ViolentNpcRegistry.install(violentNpcs);
+        } catch (RuntimeException e) {
+            Scrubians.logger("error", "[Scrubians] Failed to load NPC registries, NPCs are disabled until the next restart:");
+            e.printStackTrace();
+            enter(Phase.FAILED, now);
+            return false;
+        }
+        Scrubians.logger("[Scrubians] NPC registries loaded in " + millis(now - startNanos) + " ms");
+        return true;
+    }
+
+    private static String notLoadedMessage() {
+        return phase == Phase.FAILED
+                ? "§cNPCs failed to load this session, see the server log."
+                : "§cNPCs are still loading, try again in a moment.";
+    }
+
+    private static void enter(Phase next, long now) {
+        phase = next;
+        phaseStartNanos = now;
+    }
+
+    private static void recordFirstNpc(long now) {
+        firstNpcNanos = now - startNanos;
+        Scrubians.logger("[Scrubians] First NPC live " + millis(firstNpcNanos) + " ms after server start");
+    }
+
+    private static long millis(long nanos) {
+        return nanos / 1_000_000L;
+    }
+}
@@ -1,6 +1,9 @@
 package ca.techgarage.scrubians.commands;
 
-import ca.techgarage.scrubians.events.ChunkLoadCleanup;
+import ca.techgarage.scrubians.StartupOrchestrator;
+import ca.techgarage.scrubians.events.ChunkCleanupScheduler;
+import ca.techgarage.scrubians.events.ChunkNpcValidator;
+import ca.techgarage.scrubians.events.StrayMannequinCleanup;
 import ca.techgarage.scrubians.npcs.NpcRegistry;
 import ca.techgarage.scrubians.npcs.TrackingMannequinEntity;
 import com.mojang.brigadier.CommandDispatcher;
@@ -19,7 +22,7 @@ public class CleanupStatsCommand {
     public static void register(CommandDispatcher<ServerCommandSource> dispatcher) {
         dispatcher.register(
                 CommandManager.literal("npc").then(CommandManager.literal("cleanupstats").requires(Permissions.require("scrubians.debug"))
-                        .executes(CleanupStatsCommand::showStats))
+                        .executes(StartupOrchestrator.whenLoaded(CleanupStatsCommand::showStats)))
         );
     }
 
@@ -30,8 +33,15 @@ public class CleanupStatsCommand {
         source.sendFeedback(() -> Text.literal("§e=== Cleanup Statistics ==="), false);
 
         // Show total cleaned this session
-        int totalCleaned = ChunkLoadCleanup.getTotalCleaned();
+        int totalCleaned = ChunkNpcValidator.getMannequinsRemoved();
         source.sendFeedback(() -> Text.literal("§7Mannequins cleaned this session: §f" + totalCleaned), false);
+        int violentCleaned = ChunkNpcValidator.getViolentRemoved();
+        source.sendFeedback(() -> Text.literal("§7Violent NPCs cleaned this session: §f" + violentCleaned), false);
+        int strayRemoved = StrayMannequinCleanup.getTotalRemoved();
+        source.sendFeedback(() -> Text.literal("§7Stray mannequins removed on load: §f" + strayRemoved), false);
+        int backlog = ChunkCleanupScheduler.getBacklog(world);
+        source.sendFeedback(() -> Text.literal("§7Chunks waiting for cleanup: §f" + backlog
+                + " §7(all worlds: §f" + ChunkCleanupScheduler.getBacklog() + "§7)"), false);
 
         // Count current mannequins
         AtomicInteger validNpcs = new AtomicInteger(0);
@@ -1,5 +1,6 @@
 package ca.techgarage.scrubians.commands;
 
+import ca.techgarage.scrubians.StartupOrchestrator;
 import ca.techgarage.scrubians.npcs.NpcRegistry;
 import com.mojang.brigadier.CommandDispatcher;
 import com.mojang.brigadier.context.CommandContext;
@@ -16,7 +17,7 @@ public class DebugFileLocationCommand {
         dispatcher.register(
                 CommandManager.literal("npc")
                        .then(CommandManager.literal("debug").requires(Permissions.require("scrubians.debug"))
-                        .executes(DebugFileLocationCommand::debug))
+                        .executes(StartupOrchestrator.whenLoaded(DebugFileLocationCommand::debug)))
         );
     }
 
@@ -1,5 +1,6 @@
 package ca.techgarage.scrubians.commands;
 
+import ca.techgarage.scrubians.StartupOrchestrator;
 import ca.techgarage.scrubians.npcs.NpcRegistry;
 import ca.techgarage.scrubians.npcs.NpcRegistry.DialogueData;
 import com.mojang.brigadier.CommandDispatcher;
@@ -21,12 +22,12 @@ public class DialogueEditCommand {
                                 .then(CommandManager.argument("npcId", IntegerArgumentType.integer(0))
                                         .then(CommandManager.literal("dialogue")
                                                 // /npc edit <id> dialogue
-                                                .executes(DialogueEditCommand::help)
+                                                .executes(StartupOrchestrator.whenLoaded(DialogueEditCommand::help))
 
                                                 // /npc edit <id> dialogue addpage <text>
                                                 .then(CommandManager.literal("addpage")
                                                         .then(CommandManager.argument("text", StringArgumentType.greedyString())
-                                                                .executes(DialogueEditCommand::addPage)
+                                                                .executes(StartupOrchestrator.whenLoaded(DialogueEditCommand::addPage))
                                                         )
                                                 )
 
@@ -34,19 +35,19 @@ public class DialogueEditCommand {
                                                 .then(CommandManager.literal("addoption")
                                                         .then(CommandManager.argument("text", StringArgumentType.string())
                                                                 .then(CommandManager.argument("action", StringArgumentType.word())
-                                                                        .executes(DialogueEditCommand::addOption)
+                                                                        .executes(StartupOrchestrator.whenLoaded(DialogueEditCommand::addOption))
                                                                 )
                                                         )
                                                 )
 
                                                 // /npc edit <id> dialogue clear
                                                 .then(CommandManager.literal("clear")
-                                                        .executes(DialogueEditCommand::clearDialogue)
+                                                        .executes(StartupOrchestrator.whenLoaded(DialogueEditCommand::clearDialogue))
                                                 )
 
                                                 // /npc edit <id> dialogue view
                                                 .then(CommandManager.literal("view")
-                                                        .executes(DialogueEditCommand::viewDialogue)
+                                                        .executes(StartupOrchestrator.whenLoaded(DialogueEditCommand::viewDialogue))
                                                 )
                                         )
                                 )
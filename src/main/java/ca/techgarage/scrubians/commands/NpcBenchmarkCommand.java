@@ -0,0 +1,227 @@
+package ca.techgarage.scrubians.commands;
+
+import ca.techgarage.scrubians.Scrubians;
+import ca.techgarage.scrubians.StartupOrchestrator;
+import ca.techgarage.scrubians.npcs.NpcRegistry;
+import ca.techgarage.scrubians.npcs.TradeData;
+import ca.techgarage.scrubians.persistence.NpcBinaryFormat;
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.context.CommandContext;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import me.lucko.fabric.api.permissions.v0.Permissions;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraft.server.command.CommandManager;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.text.Text;
+import net.minecraft.util.math.Vec3d;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Debug micro-benchmarks for the NPC registry internals.
+ * Runs against synthetic data; the live registry is only read, never changed.
+ *
+ * /npc benchmark registry - Compare list scans against the registry's id lookup at growing NPC counts (runs off-thread)
+ * /npc benchmark storage  - Compare JSON and binary save/load at growing NPC counts (runs off-thread)
+ */
+public class NpcBenchmarkCommand {
+
+    private static final int[] REGISTRY_SIZES = {100, 1_000, 10_000, 100_000};
+    private static final int INDEX_LOOKUPS = 1_000_000;
+    private static final int SCAN_LOOKUPS = 2_000;
+
+    private static final int[] STORAGE_SIZES = {1_000, 10_000, 100_000};
+
+    public static void register(CommandDispatcher<ServerCommandSource> dispatcher) {
+        dispatcher.register(
+                CommandManager.literal("npc")
+                        .then(CommandManager.literal("benchmark")
+                                .requires(Permissions.require("scrubians.debug"))
+                                .then(CommandManager.literal("registry")
+                                        .executes(StartupOrchestrator.whenLoaded(NpcBenchmarkCommand::benchmarkRegistry))
+                                )
+                                .then(CommandManager.literal("storage")
+                                        .executes(StartupOrchestrator.whenLoaded(NpcBenchmarkCommand::benchmarkStorage))
+                                )
+                        )
+        );
+    }
+
+    private static int benchmarkRegistry(CommandContext<ServerCommandSource> ctx) {
+        ServerCommandSource source = ctx.getSource();
+        source.sendFeedback(() -> Text.literal("§e=== Registry Lookup Benchmark (running in background) ==="), false);
+
+        // Scanning 100k NPCs a few thousand times takes seconds, keep it off the server thread
+        CompletableFuture.runAsync(() -> {
+            Random random = new Random(42);
+            long blackhole = 0;
+
+            for (int size : REGISTRY_SIZES) {
+                List<NpcRegistry.NpcData> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(new NpcRegistry.NpcData(i, "npc_" + i, Vec3d.ZERO));
+                }
+                // Same index and lookup getNpcById uses, built over the synthetic list
+                Int2ObjectMap<NpcRegistry.NpcData> index = NpcRegistry.buildIndex(list);
+
+                // Warm up both paths so the JIT has compiled them before timing
+                blackhole += scanLookups(list, random, size, SCAN_LOOKUPS / 4);
+                blackhole += indexLookups(index, random, size, INDEX_LOOKUPS / 4);
+
+                long start = System.nanoTime();
+                blackhole += scanLookups(list, random, size, SCAN_LOOKUPS);
+                double scanNs = (System.nanoTime() - start) / (double) SCAN_LOOKUPS;
+
+                start = System.nanoTime();
+                blackhole += indexLookups(index, random, size, INDEX_LOOKUPS);
+                double indexNs = (System.nanoTime() - start) / (double) INDEX_LOOKUPS;
+
+                String line = String.format(
+                        "§7%,d NPCs: §flist scan %.1f ns §7| §agetNpcById %.1f ns §7per lookup",
+                        size, scanNs, indexNs
+                );
+                source.getServer().execute(() -> source.sendFeedback(() -> Text.literal(line), false));
+            }
+
+            // The live registry, read through getNpcById itself (safe off-thread, the index is republished)
+            int liveSize = NpcRegistry.getAllNpcs().size();
+            if (liveSize > 0) {
+                int bound = liveSize * 2;
+                blackhole += liveLookups(random, bound, INDEX_LOOKUPS / 4);
+                long start = System.nanoTime();
+                blackhole += liveLookups(random, bound, INDEX_LOOKUPS);
+                double liveNs = (System.nanoTime() - start) / (double) INDEX_LOOKUPS;
+                String line = String.format("§7Live registry (%,d NPCs): §agetNpcById %.1f ns §7per lookup", liveSize, liveNs);
+                source.getServer().execute(() -> source.sendFeedback(() -> Text.literal(line), false));
+            }
+
+            long finalBlackhole = blackhole;
+            source.getServer().execute(() -> source.sendFeedback(() -> Text.literal("§8(checksum " + finalBlackhole + ")"), false));
+        }).exceptionally(e -> {
+            Scrubians.logger("error", "[Scrubians] Registry benchmark failed: " + e);
+            source.getServer().execute(() -> source.sendError(Text.literal("Registry benchmark failed: " + e.getMessage())));
+            return null;
+        });
+        return 1;
+    }
+
+    private static int benchmarkStorage(CommandContext<ServerCommandSource> ctx) {
+        ServerCommandSource source = ctx.getSource();
+        source.sendFeedback(() -> Text.literal("§e=== Storage Format Benchmark (running in background) ==="), false);
+
+        // Encoding 100k NPCs takes seconds, keep it off the server thread
+        CompletableFuture.runAsync(() -> {
+            for (int size : STORAGE_SIZES) {
+                List<NpcRegistry.NpcData> npcs = syntheticNpcs(size);
+
+                // Warm-up round so both codecs are compiled before timing
+                NpcRegistry.decodeJson(NpcRegistry.encodeJson(npcs.subList(0, Math.min(size, 1_000))));
+                decodeBinary(NpcBinaryFormat.encodeNpcs(npcs.subList(0, Math.min(size, 1_000))));
+
+                long start = System.nanoTime();
+                byte[] json = NpcRegistry.encodeJson(npcs);
+                long jsonSaveMs = (System.nanoTime() - start) / 1_000_000;
+                start = System.nanoTime();
+                int jsonLoaded = NpcRegistry.decodeJson(json).size();
+                long jsonLoadMs = (System.nanoTime() - start) / 1_000_000;
+
+                start = System.nanoTime();
+                byte[] binary = NpcBinaryFormat.encodeNpcs(npcs);
+                long binarySaveMs = (System.nanoTime() - start) / 1_000_000;
+                start = System.nanoTime();
+                int binaryLoaded = decodeBinary(binary);
+                long binaryLoadMs = (System.nanoTime() - start) / 1_000_000;
+
+                String line = String.format(
+                        "§7%,d NPCs: §fjson %,d KB save %d ms load %d ms §7| §abinary %,d KB save %d ms load %d ms",
+                        size, json.length / 1024, jsonSaveMs, jsonLoadMs, binary.length / 1024, binarySaveMs, binaryLoadMs
+                );
+                if (jsonLoaded != size || binaryLoaded != size) {
+                    line += " §c(round trip lost records!)";
+                }
+                String message = line;
+                source.getServer().execute(() -> source.sendFeedback(() -> Text.literal(message), false));
+            }
+        }).exceptionally(e -> {
+            Scrubians.logger("error", "[Scrubians] Storage benchmark failed: " + e);
+            source.getServer().execute(() -> source.sendError(Text.literal("Storage benchmark failed: " + e.getMessage())));
+            return null;
+        });
+        return 1;
+    }
+
+    private static int decodeBinary(byte[] data) {
+        try {
+            return NpcBinaryFormat.decodeNpcs(data).size();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * NPCs shaped like real ones: a short path, one dialogue page and a couple of trades.
+     */
+    private static List<NpcRegistry.NpcData> syntheticNpcs(int size) {
+        List<NpcRegistry.NpcData> npcs = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            NpcRegistry.NpcData npc = new NpcRegistry.NpcData(i, "npc_" + i, new Vec3d(i * 0.5, 64, -i * 0.5));
+            npc.skin = "Notch";
+            npc.path.add(new NpcRegistry.Waypoint(i, 64, 0, 20));
+            npc.path.add(new NpcRegistry.Waypoint(i, 64, 8, 20));
+
+            NpcRegistry.DialogueData dialogue = new NpcRegistry.DialogueData();
+            NpcRegistry.DialogueData.DialoguePageData page = new NpcRegistry.DialogueData.DialoguePageData("Hello traveller #" + i);
+            page.options.add(new NpcRegistry.DialogueData.DialogueOptionData("Bye", "close"));
+            dialogue.pages.add(page);
+            npc.dialogue = dialogue;
+
+            TradeData tradeData = new TradeData();
+            tradeData.trades.add(new TradeData.Trade(new ItemStack(Items.DIAMOND, 1), new ItemStack(Items.EMERALD, 12),
+                    ItemStack.EMPTY, 999, 5));
+            tradeData.trades.add(new TradeData.Trade(new ItemStack(Items.BREAD, 6), new ItemStack(Items.EMERALD, 1),
+                    new ItemStack(Items.WHEAT, 3), 16, 1));
+            npc.tradeData = tradeData;
+            npcs.add(npc);
+        }
+        return npcs;
+    }
+
+    private static long scanLookups(List<NpcRegistry.NpcData> list, Random random, int size, int lookups) {
+        long sum = 0;
+        for (int i = 0; i < lookups; i++) {
+            int id = random.nextInt(size);
+            for (NpcRegistry.NpcData npc : list) {
+                if (npc.id == id) {
+                    sum += npc.id;
+                    break;
+                }
+            }
+        }
+        return sum;
+    }
+
+    private static long indexLookups(Int2ObjectMap<NpcRegistry.NpcData> index, Random random, int size, int lookups) {
+        long sum = 0;
+        for (int i = 0; i < lookups; i++) {
+            NpcRegistry.NpcData npc = NpcRegistry.lookup(index, random.nextInt(size)).orElse(null);
+            if (npc != null) sum += npc.id;
+        }
+        return sum;
+    }
+
+    // Ids are drawn from twice the registry size, so both hits and misses are timed
+    private static long liveLookups(Random random, int bound, int lookups) {
+        long sum = 0;
+        for (int i = 0; i < lookups; i++) {
+            NpcRegistry.NpcData npc = NpcRegistry.getNpcById(random.nextInt(bound)).orElse(null);
+            if (npc != null) sum += npc.id;
+        }
+        return sum;
+    }
+}
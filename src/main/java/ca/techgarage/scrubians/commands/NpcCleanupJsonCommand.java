@@ -1,7 +1,8 @@
 package ca.techgarage.scrubians.commands;
 
+import ca.techgarage.scrubians.StartupOrchestrator;
+import ca.techgarage.scrubians.npcs.NpcEntityIndex;
 import ca.techgarage.scrubians.npcs.NpcRegistry;
-import ca.techgarage.scrubians.npcs.TrackingMannequinEntity;
 import com.mojang.brigadier.CommandDispatcher;
 import com.mojang.brigadier.context.CommandContext;
 import me.lucko.fabric.api.permissions.v0.Permissions;
@@ -20,7 +21,7 @@ public class NpcCleanupJsonCommand {
 
                         .then(
                                 CommandManager.literal("cleanupjson")
-                                        .executes(NpcCleanupJsonCommand::cleanup)
+                                        .executes(StartupOrchestrator.whenLoaded(NpcCleanupJsonCommand::cleanup))
                         ).requires(Permissions.require("scrubians.debug")) // Requires OP level 2
         );
     }
@@ -36,27 +37,17 @@ public class NpcCleanupJsonCommand {
         var allNpcs = NpcRegistry.getAllNpcs();
         source.sendFeedback(() -> Text.literal("§7Registry contains: §f" + allNpcs.size() + " entries"), false);
 
-        // Get all NPCs actually in the world
-        Map<Integer, TrackingMannequinEntity> worldNpcs = new HashMap<>();
-        world.iterateEntities().forEach(entity -> {
-            if (entity instanceof TrackingMannequinEntity npc) {
-                int id = npc.getNpcId();
-                if (id >= 0) {
-                    worldNpcs.put(id, npc);
-                }
-            }
-        });
-
-        source.sendFeedback(() -> Text.literal("§7World contains: §f" + worldNpcs.size() + " valid NPCs"), false);
-
         // Find orphaned registry entries (in JSON but not in world)
         List<Integer> orphanedIds = new ArrayList<>();
         for (var npc : allNpcs) {
-            if (!worldNpcs.containsKey(npc.id)) {
+            if (NpcEntityIndex.get(world, npc.id) == null) {
                 orphanedIds.add(npc.id);
             }
         }
 
+        int worldNpcs = allNpcs.size() - orphanedIds.size();
+        source.sendFeedback(() -> Text.literal("§7World contains: §f" + worldNpcs + " valid NPCs"), false);
+
         if (orphanedIds.isEmpty()) {
             source.sendFeedback(() -> Text.literal("§a✓ No orphaned entries found!"), false);
             return 1;
@@ -1,5 +1,9 @@
 package ca.techgarage.scrubians.commands;
 
+import ca.techgarage.scrubians.StartupOrchestrator;
+import ca.techgarage.scrubians.npcs.NpcEntityFactory;
+import ca.techgarage.scrubians.npcs.NpcEntityIndex;
+import ca.techgarage.scrubians.npcs.NpcReconciler;
 import ca.techgarage.scrubians.npcs.NpcRegistry;
 import ca.techgarage.scrubians.npcs.TrackingMannequinEntity;
 import com.mojang.brigadier.CommandDispatcher;
@@ -10,7 +14,6 @@ import net.minecraft.server.command.ServerCommandSource;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.text.Text;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public class NpcDiagnoseCommand {
@@ -21,7 +24,7 @@ public class NpcDiagnoseCommand {
 
                         .then(
                                 CommandManager.literal("diagnose")
-                                        .executes(NpcDiagnoseCommand::diagnose)
+                                        .executes(StartupOrchestrator.whenLoaded(NpcDiagnoseCommand::diagnose))
                         ).requires(Permissions.require("scrubians.npc")) // Requires OP level 2
         );
     }
@@ -51,12 +54,7 @@ public class NpcDiagnoseCommand {
         }
 
         // Check entities in world
-        List<TrackingMannequinEntity> worldNpcs = new ArrayList<>();
-        world.iterateEntities().forEach(entity -> {
-            if (entity instanceof TrackingMannequinEntity) {
-                worldNpcs.add((TrackingMannequinEntity) entity);
-            }
-        });
+        List<TrackingMannequinEntity> worldNpcs = NpcEntityIndex.getAll(world);
 
         source.sendFeedback(() -> Text.literal("§7NPCs in World: §f" + worldNpcs.size()), false);
 
@@ -98,6 +96,12 @@ public class NpcDiagnoseCommand {
         source.sendFeedback(() -> Text.literal("§aValid NPCs: §f" + finalValidIds), false);
         int finalInvalidIds = invalidIds;
         source.sendFeedback(() -> Text.literal("§cInvalid NPCs: §f" + finalInvalidIds), false);
+        source.sendFeedback(() -> Text.literal("§7Reconciler: §f" + NpcReconciler.getMissingCount() + " §7queued, §f"
+                + NpcReconciler.getReadyChunkCount() + " §7chunks ready, §f"
+                + NpcEntityFactory.getInFlightCount() + " §7spawning (§f" + NpcEntityFactory.getSkinLookupCount()
+                + " §7skin lookups), last drain checked §f" + NpcReconciler.getLastChecked()
+                + " §7spawned §f" + NpcReconciler.getLastSpawned() + " §7(session total §f"
+                + NpcReconciler.getTotalSpawned() + "§7)"), false);
 
         if (invalidIds > 0) {
             source.sendFeedback(() -> Text.literal("§e⚠ Issues detected!"), false);
@@ -1,5 +1,6 @@
 package ca.techgarage.scrubians.commands;
 
+import ca.techgarage.scrubians.StartupOrchestrator;
 import ca.techgarage.scrubians.npcs.NpcRegistry;
 import ca.techgarage.scrubians.npcs.PathEditorSession;
 import ca.techgarage.scrubians.npcs.TradeEditorGui;
@@ -27,14 +28,14 @@ public class NpcEditCommand {
                                                         // /npc edit <npcId> name <newName>
                                                         .then(CommandManager.literal("name")
                                                                 .then(CommandManager.argument("newName", StringArgumentType.string())
-                                                                        .executes(NpcEditCommand::editName)
+                                                                        .executes(StartupOrchestrator.whenLoaded(NpcEditCommand::editName))
                                                                 )
                                                         )
 
                                                         // /npc edit <npcId> skin <newSkin>
                                                         .then(CommandManager.literal("skin")
                                                                 .then(CommandManager.argument("newSkin", StringArgumentType.string())
-                                                                        .executes(NpcEditCommand::editSkin)
+                                                                        .executes(StartupOrchestrator.whenLoaded(NpcEditCommand::editSkin))
                                                                 )
                                                         )
 
@@ -43,50 +44,50 @@ public class NpcEditCommand {
 
                                                                 // start
                                                                 .then(CommandManager.literal("start")
-                                                                        .executes(NpcEditCommand::startPathEdit)
+                                                                        .executes(StartupOrchestrator.whenLoaded(NpcEditCommand::startPathEdit))
                                                                 )
 
                                                                 // add [waitTicks]
                                                                 .then(CommandManager.literal("add")
-                                                                        .executes(ctx -> addWaypoint(ctx, 40))
+                                                                        .executes(StartupOrchestrator.whenLoaded(ctx -> addWaypoint(ctx, 40)))
                                                                         .then(CommandManager.argument("waitTicks", IntegerArgumentType.integer(0))
-                                                                                .executes(ctx ->
+                                                                                .executes(StartupOrchestrator.whenLoaded(ctx ->
                                                                                         addWaypoint(ctx, IntegerArgumentType.getInteger(ctx, "waitTicks"))
-                                                                                )
+                                                                                ))
                                                                         )
                                                                 )
 
                                                                 // undo
                                                                 .then(CommandManager.literal("undo")
-                                                                        .executes(NpcEditCommand::undoWaypoint)
+                                                                        .executes(StartupOrchestrator.whenLoaded(NpcEditCommand::undoWaypoint))
                                                                 )
 
                                                                 // save
                                                                 .then(CommandManager.literal("save")
-                                                                        .executes(NpcEditCommand::savePathEdit)
+                                                                        .executes(StartupOrchestrator.whenLoaded(NpcEditCommand::savePathEdit))
                                                                 )
 
                                                                 // cancel
                                                                 .then(CommandManager.literal("cancel")
-                                                                        .executes(NpcEditCommand::cancelPathEdit)
+                                                                        .executes(StartupOrchestrator.whenLoaded(NpcEditCommand::cancelPathEdit))
                                                                 )
 
                                                                 // clear
                                                                 .then(CommandManager.literal("clear")
-                                                                        .executes(NpcEditCommand::clearPath)
+                                                                        .executes(StartupOrchestrator.whenLoaded(NpcEditCommand::clearPath))
                                                                 )
 
                                                                 // setwait <ticks>
                                                                 .then(CommandManager.literal("setwait")
                                                                         .then(CommandManager.argument("ticks", IntegerArgumentType.integer(0))
-                                                                                .executes(NpcEditCommand::setDefaultWait)
+                                                                                .executes(StartupOrchestrator.whenLoaded(NpcEditCommand::setDefaultWait))
                                                                         )
                                                                 )
                                                         )
                                                         .then(CommandManager.literal("trader")
-                                                                .executes(NpcEditCommand::openTradeEditor)
+                                                                .executes(StartupOrchestrator.whenLoaded(NpcEditCommand::openTradeEditor))
                                                                  .then(CommandManager.literal("confirm")
-                                                                         .executes(NpcEditCommand::openTradeEditorConfirm)
+                                                                         .executes(StartupOrchestrator.whenLoaded(NpcEditCommand::openTradeEditorConfirm))
                                                                 )
                                         ).requires(Permissions.require("scrubians.npc.edit")) // Requires OP level 2)
                                 )
@@ -125,7 +126,6 @@ public class NpcEditCommand {
 
         NpcRegistry.changeSkin(npcId, newSkin);
         source.sendFeedback(() -> Text.literal("§aSuccessfully changed NPC skin to '" + newSkin + "'"), true);
-        source.sendFeedback(() -> Text.literal("§eNote: You may need to respawn the NPC for skin changes to take effect"), false);
         return 1;
     }
 
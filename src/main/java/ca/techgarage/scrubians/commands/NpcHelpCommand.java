@@ -30,6 +30,7 @@ public class NpcHelpCommand {
             source.sendMessage(Text.literal("§e/npc respawn <id> §7- Respawn NPC with specified ID from the registry"));
             source.sendMessage(Text.literal("§e/npc create {skin, name, path} §7- Create a new NPC at your current location with various options"));
             source.sendMessage(Text.literal("§e/npc dialogue <id> §7- Open dialogue editor for NPC with specified ID"));
+            source.sendMessage(Text.literal("§e/npc storage {info, export, changes <since>, selftest} §7- Show the storage mode, export the NPC data as JSON, list changes or check trade round trips"));
 
         return 1;
     }
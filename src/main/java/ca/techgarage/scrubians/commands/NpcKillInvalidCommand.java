@@ -1,9 +1,8 @@
 package ca.techgarage.scrubians.commands;
 
-import ca.techgarage.scrubians.npcs.TrackingMannequinEntity;
+import ca.techgarage.scrubians.npcs.NpcEntityIndex;
 import com.mojang.brigadier.CommandDispatcher;
 import me.lucko.fabric.api.permissions.v0.Permissions;
-import net.minecraft.entity.Entity;
 import net.minecraft.entity.decoration.MannequinEntity;
 import net.minecraft.server.command.ServerCommandSource;
 import net.minecraft.server.world.ServerWorld;
@@ -24,15 +23,11 @@ public class NpcKillInvalidCommand {
     private static int execute(ServerCommandSource source) {
         int removed = 0;
 
+        // Stray mannequins are normally removed as they load (StrayMannequinCleanup)
         for (ServerWorld world : source.getServer().getWorlds()) {
-            for (Entity entity : world.iterateEntities()) {
-                if (entity instanceof MannequinEntity mannequin) {
-
-                    // Kill all non-NPC mannequins
-                    if (!(mannequin instanceof TrackingMannequinEntity)) {
-                        mannequin.discard();
-                    }
-                }
+            for (MannequinEntity mannequin : NpcEntityIndex.getUntracked(world)) {
+                mannequin.discard();
+                removed++;
             }
         }
 
@@ -48,18 +43,5 @@ public class NpcKillInvalidCommand {
     }
 
 
-    public static void killInvalidNPCs(ServerWorld world) {
-            for (Entity entity : world.iterateEntities()) {
-                if (entity instanceof MannequinEntity mannequin) {
-
-                    // Kill all non-NPC mannequins
-                    if (!(mannequin instanceof TrackingMannequinEntity)) {
-                        mannequin.discard();
-                    }
-                }
-            }
-        }
-
-
 
 }
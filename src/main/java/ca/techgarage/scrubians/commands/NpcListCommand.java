@@ -1,5 +1,6 @@
 package ca.techgarage.scrubians.commands;
 
+import ca.techgarage.scrubians.StartupOrchestrator;
 import ca.techgarage.scrubians.npcs.NpcRegistry;
 import ca.techgarage.scrubians.npcs.NpcRegistry.NpcData;
 import com.mojang.brigadier.CommandDispatcher;
@@ -17,7 +18,7 @@ public class NpcListCommand {
         dispatcher.register(
                 CommandManager.literal("npc")
                        .then(CommandManager.literal("list").requires(Permissions.require("scrubians.npc"))
-                        .executes(NpcListCommand::execute))
+                        .executes(StartupOrchestrator.whenLoaded(NpcListCommand::execute)))
         );
     }
 
@@ -1,5 +1,6 @@
 package ca.techgarage.scrubians.commands;
 
+import ca.techgarage.scrubians.StartupOrchestrator;
 import ca.techgarage.scrubians.npcs.NpcRegistry;
 import com.mojang.brigadier.CommandDispatcher;
 import com.mojang.brigadier.context.CommandContext;
@@ -18,10 +19,10 @@ public class NpcRecoveryCommand {
                 CommandManager.literal("npc")
                         .then(CommandManager.literal("recover").requires(Permissions.require("scrubians.npc.recover"))
                         .then(CommandManager.literal("list")
-                                .executes(NpcRecoveryCommand::listBackups)
+                                .executes(StartupOrchestrator.whenLoaded(NpcRecoveryCommand::listBackups))
                         )
                         .then(CommandManager.literal("clean")
-                                .executes(NpcRecoveryCommand::cleanStart)
+                                .executes(StartupOrchestrator.whenLoaded(NpcRecoveryCommand::cleanStart))
                         ))
         );
     }
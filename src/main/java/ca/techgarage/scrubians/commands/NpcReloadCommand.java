@@ -1,14 +1,18 @@
 package ca.techgarage.scrubians.commands;
 
 import ca.techgarage.scrubians.Scrubians;
+import ca.techgarage.scrubians.StartupOrchestrator;
+import ca.techgarage.scrubians.npcs.NpcEntityIndex;
+import ca.techgarage.scrubians.npcs.NpcRegistry;
 import ca.techgarage.scrubians.npcs.TrackingMannequinEntity;
+import ca.techgarage.scrubians.persistence.NpcBinaryFormat;
+import ca.techgarage.scrubians.persistence.StorageMode;
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.mojang.brigadier.CommandDispatcher;
 import com.mojang.brigadier.context.CommandContext;
 import me.lucko.fabric.api.permissions.v0.Permissions;
-import net.minecraft.entity.Entity;
 import net.minecraft.entity.decoration.MannequinEntity;
 import net.minecraft.server.command.CommandManager;
 import net.minecraft.server.command.ServerCommandSource;
@@ -28,7 +32,7 @@ public class NpcReloadCommand {
                 CommandManager.literal("npc")
                         .then(CommandManager.literal("reload")
                                 .requires(Permissions.require("scrubians.npc"))
-                                .executes(NpcReloadCommand::execute))
+                                .executes(StartupOrchestrator.whenLoaded(NpcReloadCommand::execute)))
         );
     }
 
@@ -48,24 +52,23 @@ public class NpcReloadCommand {
 
         // Iterate through all worlds and check NPCs
         for (ServerWorld world : source.getServer().getWorlds()) {
-            for (Entity entity : world.iterateEntities()) {
-                if (entity instanceof TrackingMannequinEntity trackingNpc) {
-                    int npcId = trackingNpc.getNpcId();
-
-                    // If the NPC ID is not in the valid list, remove it
-                    if (!validNpcIds.contains(npcId)) {
-                        trackingNpc.discard();
-                        removed++;
-                        Scrubians.logger("info", "Removed NPC #" + npcId + " (not found in data files)");
-                    } else {
-                        kept++;
-                    }
-                } else if (entity instanceof MannequinEntity mannequin) {
-                    // Also remove any non-tracking mannequins (invalid NPCs)
-                    mannequin.discard();
+            for (TrackingMannequinEntity trackingNpc : NpcEntityIndex.getAll(world)) {
+                int npcId = trackingNpc.getNpcId();
+
+                // If the NPC ID is not in the valid list, remove it
+                if (!validNpcIds.contains(npcId)) {
+                    trackingNpc.discard();
                     removed++;
+                    Scrubians.logger("info", "Removed NPC #" + npcId + " (not found in data files)");
+                } else {
+                    kept++;
                 }
             }
+            // Also remove any non-tracking mannequins (invalid NPCs)
+            for (MannequinEntity mannequin : NpcEntityIndex.getUntracked(world)) {
+                mannequin.discard();
+                removed++;
+            }
         }
 
         int finalRemoved = removed;
@@ -96,8 +99,25 @@ public class NpcReloadCommand {
             return null;
         }
 
+        // Sharded storage keeps every id in its header index
+        File shardIndex = new File(dataFolder, "npcs/index.bin");
+        if (NpcRegistry.getStorageMode() == StorageMode.SHARDED && shardIndex.exists()) {
+            try {
+                Set<Integer> validIds = new HashSet<>();
+                for (NpcRegistry.NpcData npc : NpcBinaryFormat.readIndex(shardIndex.toPath())) {
+                    validIds.add(npc.id);
+                }
+                Scrubians.logger("info", "Total valid NPC IDs loaded: " + validIds.size());
+                return validIds;
+            } catch (IOException e) {
+                Scrubians.logger("error", "Failed to read NPC index " + shardIndex.getName() + ": " + e.getMessage());
+                return null;
+            }
+        }
+
+        // The binary file has no stale backups next to it, so only the live one is read
         File[] files = dataFolder.listFiles((dir, name) ->
-                name.startsWith("scrubians_npcs") && name.endsWith(".json")
+                name.startsWith("scrubians_npcs") && (name.endsWith(".json") || name.equals("scrubians_npcs.bin"))
         );
 
         if (files == null || files.length == 0) {
@@ -109,6 +129,20 @@ public class NpcReloadCommand {
         Gson gson = new Gson();
 
         for (File file : files) {
+            if (file.getName().endsWith(".bin")) {
+                try {
+                    var npcs = NpcBinaryFormat.readNpcs(file.toPath());
+                    for (NpcRegistry.NpcData npc : npcs) {
+                        validIds.add(npc.id);
+                    }
+                    Scrubians.logger("info", "Loaded " + npcs.size() + " NPC(s) from " + file.getName());
+                } catch (IOException e) {
+                    Scrubians.logger("error", "Failed to read NPC data file " + file.getName() + ": " + e.getMessage());
+                    return null;
+                }
+                continue;
+            }
+
             try (FileReader reader = new FileReader(file)) {
                 JsonArray array = gson.fromJson(reader, JsonArray.class);
                 if (array == null) continue;
@@ -151,19 +185,19 @@ public class NpcReloadCommand {
 
         int removed = 0;
 
-        for (Entity entity : world.iterateEntities()) {
-            if (entity instanceof TrackingMannequinEntity trackingNpc) {
-                int npcId = trackingNpc.getNpcId();
+        for (TrackingMannequinEntity trackingNpc : NpcEntityIndex.getAll(world)) {
+            int npcId = trackingNpc.getNpcId();
 
-                if (!validNpcIds.contains(npcId)) {
-                    trackingNpc.discard();
-                    removed++;
-                }
-            } else if (entity instanceof MannequinEntity mannequin) {
-                mannequin.discard();
+            if (!validNpcIds.contains(npcId)) {
+                trackingNpc.discard();
                 removed++;
             }
         }
+        // Also remove any non-tracking mannequins (invalid NPCs)
+        for (MannequinEntity mannequin : NpcEntityIndex.getUntracked(world)) {
+            mannequin.discard();
+            removed++;
+        }
 
         return removed;
     }
@@ -183,19 +217,19 @@ public class NpcReloadCommand {
         int totalRemoved = 0;
 
         for (ServerWorld world : source.getServer().getWorlds()) {
-            for (Entity entity : world.iterateEntities()) {
-                if (entity instanceof TrackingMannequinEntity trackingNpc) {
-                    int npcId = trackingNpc.getNpcId();
+            for (TrackingMannequinEntity trackingNpc : NpcEntityIndex.getAll(world)) {
+                int npcId = trackingNpc.getNpcId();
 
-                    if (!validNpcIds.contains(npcId)) {
-                        trackingNpc.discard();
-                        totalRemoved++;
-                    }
-                } else if (entity instanceof MannequinEntity mannequin) {
-                    mannequin.discard();
+                if (!validNpcIds.contains(npcId)) {
+                    trackingNpc.discard();
                     totalRemoved++;
                 }
             }
+            // Also remove any non-tracking mannequins (invalid NPCs)
+            for (MannequinEntity mannequin : NpcEntityIndex.getUntracked(world)) {
+                mannequin.discard();
+                totalRemoved++;
+            }
         }
 
         return totalRemoved;
@@ -1,6 +1,8 @@
 package ca.techgarage.scrubians.commands;
 
 import ca.techgarage.scrubians.Scrubians;
+import ca.techgarage.scrubians.StartupOrchestrator;
+import ca.techgarage.scrubians.npcs.NpcRegistry;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonArray;
@@ -26,7 +28,7 @@ public class NpcRemoveCommand {
                         .then(CommandManager.literal("delete")
                                 .requires(Permissions.require("scrubians.npc.delete"))
                                 .then(CommandManager.argument("npcId", IntegerArgumentType.integer(0))
-                                        .executes(NpcRemoveCommand::execute)))
+                                        .executes(StartupOrchestrator.whenLoaded(NpcRemoveCommand::execute))))
         );
     }
 
@@ -34,6 +36,20 @@ public class NpcRemoveCommand {
         ServerCommandSource source = ctx.getSource();
         int npcId = IntegerArgumentType.getInteger(ctx, "npcId");
 
+        // Binary storage can't be edited in place - go through the registry, which saves it
+        if (!NpcRegistry.getStorageMode().isJsonBased()) {
+            if (NpcRegistry.getNpcById(npcId).isEmpty()) {
+                source.sendError(Text.literal("NPC with id " + npcId + " not found."));
+                return 0;
+            }
+            // Its loaded entity despawns straight away through the registry change event
+            NpcRegistry.removeNpcById(npcId);
+            source.sendFeedback(() ->
+                    Text.literal("Deleted NPC with id " + npcId), true
+            );
+            return 1;
+        }
+
         File serverRoot = new File(".").getAbsoluteFile();
         File dataFolder = new File(serverRoot, ".scrubians/data");
 
@@ -1,5 +1,6 @@
 package ca.techgarage.scrubians.commands;
 
+import ca.techgarage.scrubians.StartupOrchestrator;
 import ca.techgarage.scrubians.npcs.NpcEntityFactory;
 import ca.techgarage.scrubians.npcs.NpcRegistry;
 import com.mojang.brigadier.CommandDispatcher;
@@ -20,11 +21,11 @@ public class NpcRespawnCommand {
                         .requires(Permissions.require("scrubians.npc.respawn")) // Requires OP level 2
                         // /npcrespawn <npcId>
                         .then(CommandManager.argument("npcId", IntegerArgumentType.integer(0))
-                                .executes(NpcRespawnCommand::respawnSingle)
+                                .executes(StartupOrchestrator.whenLoaded(NpcRespawnCommand::respawnSingle))
                         )
                         // /npcrespawn all
                         .then(CommandManager.literal("all")
-                                .executes(NpcRespawnCommand::respawnAll)
+                                .executes(StartupOrchestrator.whenLoaded(NpcRespawnCommand::respawnAll))
                         )
                         )
         );
@@ -40,8 +41,8 @@ public class NpcRespawnCommand {
             return 0;
         }
 
-        ServerWorld world = source.getWorld();
         NpcRegistry.NpcData npc = npcOpt.get();
+        ServerWorld world = homeWorld(source, npc);
 
         source.sendFeedback(() -> Text.literal("§eRespawning NPC #" + npcId + " (" + npc.name + ")..."), true);
 
@@ -62,7 +63,6 @@ public class NpcRespawnCommand {
 
     private static int respawnAll(CommandContext<ServerCommandSource> ctx) {
         ServerCommandSource source = ctx.getSource();
-        ServerWorld world = source.getWorld();
 
         var allNpcs = NpcRegistry.getAllNpcs();
         if (allNpcs.isEmpty()) {
@@ -74,7 +74,7 @@ public class NpcRespawnCommand {
 
         int[] successCount = {0};
         for (NpcRegistry.NpcData npc : allNpcs) {
-            NpcEntityFactory.respawnNpcFromRegistry(world, npc.id).thenAccept(entity -> {
+            NpcEntityFactory.respawnNpcFromRegistry(homeWorld(source, npc), npc.id).thenAccept(entity -> {
                 successCount[0]++;
                 if (successCount[0] == allNpcs.size()) {
                     source.sendFeedback(() -> Text.literal("§aSuccessfully respawned all " + successCount[0] + " NPC(s)!"), false);
@@ -87,37 +87,10 @@ public class NpcRespawnCommand {
 
         return 1;
     }
-    public static void serverRespawnAll(ServerWorld world) {
-        var allNpcs = NpcRegistry.getAllNpcs();
-        if (allNpcs.isEmpty()) {
-            return;
-        }
-
-        int[] successCount = {0};
-        for (NpcRegistry.NpcData npc : allNpcs) {
-            NpcEntityFactory.respawnNpcFromRegistry(world, npc.id).thenAccept(entity -> {
-                successCount[0]++;
-                if (successCount[0] == allNpcs.size()) {
-                }
-            }).exceptionally(ex -> {
-                return null;
-            });
-        }
-    }
-    /**
-     * Check for NPCs on server start
-     * This does NOT respawn - just logs information
-     */
-    public static void respawnAllOnServerStart(ServerWorld world) {
-
-        var allNpcs = NpcRegistry.getAllNpcs();
-        int[] successCount = {0};
-        for (NpcRegistry.NpcData npc : allNpcs) {
-            NpcEntityFactory.respawnNpcFromRegistry(world, npc.id).thenAccept(entity -> {
-                successCount[0]++;
-
-            });
-        }
 
+    // The NPC's own dimension, or the command's world if that dimension is gone
+    private static ServerWorld homeWorld(ServerCommandSource source, NpcRegistry.NpcData npc) {
+        ServerWorld home = source.getServer().getWorld(npc.getHomeDimension());
+        return home != null ? home : source.getWorld();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,132 @@
+package ca.techgarage.scrubians.commands;
+
+import ca.techgarage.scrubians.StartupOrchestrator;
+import ca.techgarage.scrubians.npcs.NpcRegistry;
+import ca.techgarage.scrubians.npcs.violent.ViolentNpcRegistry;
+import ca.techgarage.scrubians.persistence.ItemStackCache;
+import ca.techgarage.scrubians.persistence.StorageMode;
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.LongArgumentType;
+import com.mojang.brigadier.context.CommandContext;
+import it.unimi.dsi.fastutil.ints.IntList;
+import me.lucko.fabric.api.permissions.v0.Permissions;
+import net.minecraft.server.command.CommandManager;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.text.Text;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * /npc storage info            - Show the active storage mode
+ * /npc storage export          - Write the registries as JSON to .scrubians/export
+ * /npc storage changes <since> - List NPCs changed or removed after a registry version
+ * /npc storage selftest        - Check that trades with undecodable items survive a load and save
+ */
+public class NpcStorageCommand {
+
+    public static void register(CommandDispatcher<ServerCommandSource> dispatcher) {
+        dispatcher.register(
+                CommandManager.literal("npc")
+                        .then(CommandManager.literal("storage")
+                                .requires(Permissions.require("scrubians.npc"))
+                                .then(CommandManager.literal("info")
+                                        .executes(StartupOrchestrator.whenLoaded(NpcStorageCommand::info))
+                                )
+                                .then(CommandManager.literal("export")
+                                        .executes(StartupOrchestrator.whenLoaded(NpcStorageCommand::export))
+                                )
+                                .then(CommandManager.literal("changes")
+                                        .then(CommandManager.argument("since", LongArgumentType.longArg(0))
+                                                .executes(StartupOrchestrator.whenLoaded(NpcStorageCommand::changes))
+                                        )
+                                )
+                                .then(CommandManager.literal("selftest")
+                                        .executes(StartupOrchestrator.whenLoaded(NpcStorageCommand::selfTest))
+                                )
+                        )
+        );
+    }
+
+    private static int info(CommandContext<ServerCommandSource> ctx) {
+        ServerCommandSource source = ctx.getSource();
+        source.sendFeedback(() -> Text.literal("§e=== NPC Storage ==="), false);
+        source.sendFeedback(() -> Text.literal("§7Mode: §f" + NpcRegistry.getStorageMode().name().toLowerCase()), false);
+        source.sendFeedback(() -> Text.literal("§7NPCs: §f" + NpcRegistry.getAllNpcs().size()
+                + " §7| Violent NPCs: §f" + ViolentNpcRegistry.getAllNpcs().size()), false);
+        source.sendFeedback(() -> Text.literal("§7Version: §f" + NpcRegistry.getCurrentVersion()
+                + " §7| Unsaved NPCs: §f" + NpcRegistry.getDirtyCount()), false);
+        source.sendFeedback(() -> Text.literal("§7Trade item cache: §f" + ItemStackCache.getHits() + " §7hits, §f"
+                + ItemStackCache.getMisses() + " §7misses"), false);
+        if (NpcRegistry.getStorageMode() == StorageMode.SHARDED) {
+            source.sendFeedback(() -> Text.literal("§7Regions with payloads loaded: §f" + NpcRegistry.getLoadedRegionCount()
+                    + "§7/§f" + NpcRegistry.getRegionCount()), false);
+        }
+        return 1;
+    }
+
+    private static int changes(CommandContext<ServerCommandSource> ctx) {
+        ServerCommandSource source = ctx.getSource();
+        long since = LongArgumentType.getLong(ctx, "since");
+
+        List<NpcRegistry.NpcData> changed = NpcRegistry.getChangedSince(since);
+        IntList removed = NpcRegistry.getRemovedSince(since);
+
+        source.sendFeedback(() -> Text.literal("§e=== NPC Changes since v" + since + " (now v"
+                + NpcRegistry.getCurrentVersion() + ") ==="), false);
+        if (since < NpcRegistry.getLoadedVersion()) {
+            source.sendFeedback(() -> Text.literal("§6Removals before v" + NpcRegistry.getLoadedVersion()
+                    + " are not tracked - do a full export instead"), false);
+        }
+
+        StringBuilder changedIds = new StringBuilder();
+        for (int i = 0; i < Math.min(changed.size(), 20); i++) {
+            if (i > 0) changedIds.append(", ");
+            NpcRegistry.NpcData npc = changed.get(i);
+            changedIds.append('#').append(npc.id).append(" (v").append(npc.version).append(')');
+        }
+        if (changed.size() > 20) changedIds.append(", ...");
+
+        source.sendFeedback(() -> Text.literal("§7Changed: §f" + changed.size()
+                + (changed.isEmpty() ? "" : " §7- §f" + changedIds)), false);
+        source.sendFeedback(() -> Text.literal("§7Removed: §f" + removed.size()
+                + (removed.isEmpty() ? "" : " §7- §f" + removed)), false);
+        return 1;
+    }
+
+    private static int selfTest(CommandContext<ServerCommandSource> ctx) {
+        ServerCommandSource source = ctx.getSource();
+        List<String> failures;
+        try {
+            failures = NpcRegistry.checkUndecodableTradeRoundTrip();
+        } catch (Exception e) {
+            source.sendError(Text.literal("Storage self-test could not run: " + e.getMessage()));
+            return 0;
+        }
+        if (failures.isEmpty()) {
+            source.sendFeedback(() -> Text.literal("§aUndecodable trade items survive a load and save unchanged"), false);
+            return 1;
+        }
+        for (String failure : failures) {
+            source.sendError(Text.literal(failure));
+        }
+        return 0;
+    }
+
+    private static int export(CommandContext<ServerCommandSource> ctx) {
+        ServerCommandSource source = ctx.getSource();
+
+        File npcFile = NpcRegistry.exportJson();
+        File violentFile = ViolentNpcRegistry.exportJson();
+
+        source.sendFeedback(() -> Text.literal("§aExporting NPCs to: §f" + npcFile.getAbsolutePath()), true);
+        if (violentFile != null) {
+            source.sendFeedback(() -> Text.literal("§aExporting violent NPCs to: §f" + violentFile.getAbsolutePath()), true);
+        }
+        if (!NpcRegistry.getStorageMode().isJsonBased()) {
+            source.sendFeedback(() -> Text.literal(
+                    "§7To apply hand edits, stop the server, copy the export over .scrubians/data and delete the .bin file or npcs folder"), false);
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,45 @@
+package ca.techgarage.scrubians.commands;
+
+import ca.techgarage.scrubians.ScrubiansConfig;
+import ca.techgarage.scrubians.ScrubiansScheduler;
+import ca.techgarage.scrubians.StartupOrchestrator;
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.context.CommandContext;
+import me.lucko.fabric.api.permissions.v0.Permissions;
+import net.minecraft.server.command.CommandManager;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.text.Text;
+
+public class SchedulerStatsCommand {
+
+    public static void register(CommandDispatcher<ServerCommandSource> dispatcher) {
+        dispatcher.register(
+                CommandManager.literal("npc").then(CommandManager.literal("schedulerstats").requires(Permissions.require("scrubians.debug"))
+                        .executes(SchedulerStatsCommand::showStats))
+        );
+    }
+
+    private static int showStats(CommandContext<ServerCommandSource> ctx) {
+        ServerCommandSource source = ctx.getSource();
+
+        source.sendFeedback(() -> Text.literal("§e=== Scheduler Statistics ==="), false);
+        source.sendFeedback(() -> Text.literal(String.format("§7Budget: §f%d ms§7, last tick: §f%.3f ms§7, over budget on §f%d §7of §f%d §7ticks",
+                ScrubiansConfig.schedulerBudgetMs, ScrubiansScheduler.getLastTickNanos() / 1_000_000.0,
+                ScrubiansScheduler.getOverBudgetTicks(), ScrubiansScheduler.getTick())), false);
+
+        long firstNpc = StartupOrchestrator.getFirstNpcMillis();
+        long total = StartupOrchestrator.getTotalMillis();
+        source.sendFeedback(() -> Text.literal(String.format("§7Startup: §f%s§7, first NPC: §f%s§7, complete: §f%s",
+                StartupOrchestrator.getPhase(), firstNpc >= 0 ? firstNpc + " ms" : "-", total >= 0 ? total + " ms" : "-")), false);
+
+        for (ScrubiansScheduler.TaskStats task : ScrubiansScheduler.getStats()) {
+            double avgMs = task.runs() > 0 ? task.totalNanos() / 1_000_000.0 / task.runs() : 0;
+            source.sendFeedback(() -> Text.literal(String.format(
+                    "  §f%s §7every %d: %d runs, avg §f%.3f ms§7, last §f%.3f ms§7, deferred %d%s",
+                    task.name(), task.intervalTicks(), task.runs(), avgMs, task.lastNanos() / 1_000_000.0,
+                    task.deferrals(), task.carried() ? " §e(carried over)" : "")), false);
+        }
+
+        return 1;
+    }
+}
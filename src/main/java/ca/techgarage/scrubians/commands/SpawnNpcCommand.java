@@ -1,5 +1,6 @@
 package ca.techgarage.scrubians.commands;
 
+import ca.techgarage.scrubians.StartupOrchestrator;
 import ca.techgarage.scrubians.npcs.NpcEntityFactory;
 import com.mojang.brigadier.CommandDispatcher;
 import com.mojang.brigadier.arguments.BoolArgumentType;
@@ -25,13 +26,13 @@ public class SpawnNpcCommand {
 
                             // Just name (uses default Steve skin, not attackable)
                             .then(CommandManager.argument("name", StringArgumentType.string())
-                                    .executes(context -> execute(context, null, false))
+                                    .executes(StartupOrchestrator.whenLoaded(context -> execute(context, null, false)))
                                     // Name + skinName
                                     .then(CommandManager.argument("skinName", StringArgumentType.string())
-                                            .executes(context -> execute(context, StringArgumentType.getString(context, "skinName"), false))
+                                            .executes(StartupOrchestrator.whenLoaded(context -> execute(context, StringArgumentType.getString(context, "skinName"), false)))
                                             // Name + skinName + attackable
                                             .then(CommandManager.argument("attackable", BoolArgumentType.bool())
-                                                    .executes(context -> execute(context, StringArgumentType.getString(context, "skinName"), BoolArgumentType.getBool(context, "attackable")))
+                                                    .executes(StartupOrchestrator.whenLoaded(context -> execute(context, StringArgumentType.getString(context, "skinName"), BoolArgumentType.getBool(context, "attackable"))))
                                             )
                                     )
                             )
@@ -1,9 +1,11 @@
 package ca.techgarage.scrubians.commands;
 
+import ca.techgarage.scrubians.StartupOrchestrator;
 import ca.techgarage.scrubians.npcs.SelectionManager;
 import ca.techgarage.scrubians.npcs.violent.ViolentNpcRegistry;
 import ca.techgarage.scrubians.npcs.violent.ViolentNpcTracker;
 import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.BoolArgumentType;
 import com.mojang.brigadier.arguments.DoubleArgumentType;
 import com.mojang.brigadier.arguments.IntegerArgumentType;
 import com.mojang.brigadier.arguments.StringArgumentType;
@@ -34,6 +36,7 @@ import java.util.Optional;
  * /npc violent setstats <id> <health> <damage> <speed> - Set NPC stats
  * /npc violent setcount <id> <maxCount> - Set max spawn count
  * /npc violent setrespawn <id> <seconds> - Set respawn delay
+ * /npc violent setfireimmune <id> <true|false> - Set whether the NPC ignores fire
  * /npc violent spawn <id> - Force spawn the NPC
  * /npc violent despawn <id> - Despawn all entities for NPC
  * /npc violent list - List all violent NPCs
@@ -68,7 +71,7 @@ public class SpawnViolentNpcCommand {
                                 .then(CommandManager.literal("create")
                                         .then(CommandManager.argument("name", StringArgumentType.string())
                                                 .then(CommandManager.argument("entityType", StringArgumentType.string())
-                                                        .executes(SpawnViolentNpcCommand::create)
+                                                        .executes(StartupOrchestrator.whenLoaded(SpawnViolentNpcCommand::create))
                                                 )
                                         )
                                 )
@@ -76,7 +79,7 @@ public class SpawnViolentNpcCommand {
                                 // Update spawn area using selection
                                 .then(CommandManager.literal("setarea")
                                         .then(CommandManager.argument("id", IntegerArgumentType.integer(0))
-                                                .executes(SpawnViolentNpcCommand::setArea)
+                                                .executes(StartupOrchestrator.whenLoaded(SpawnViolentNpcCommand::setArea))
                                         )
                                 )
 
@@ -86,7 +89,7 @@ public class SpawnViolentNpcCommand {
                                                 .then(CommandManager.argument("health", DoubleArgumentType.doubleArg(1))
                                                         .then(CommandManager.argument("damage", DoubleArgumentType.doubleArg(0))
                                                                 .then(CommandManager.argument("speed", DoubleArgumentType.doubleArg(0.1))
-                                                                        .executes(SpawnViolentNpcCommand::setStats)
+                                                                        .executes(StartupOrchestrator.whenLoaded(SpawnViolentNpcCommand::setStats))
                                                                 )
                                                         )
                                                 )
@@ -97,7 +100,7 @@ public class SpawnViolentNpcCommand {
                                 .then(CommandManager.literal("setcount")
                                         .then(CommandManager.argument("id", IntegerArgumentType.integer(0))
                                                 .then(CommandManager.argument("maxCount", IntegerArgumentType.integer(1))
-                                                        .executes(SpawnViolentNpcCommand::setMaxCount)
+                                                        .executes(StartupOrchestrator.whenLoaded(SpawnViolentNpcCommand::setMaxCount))
                                                 )
                                         )
                                 )
@@ -106,7 +109,16 @@ public class SpawnViolentNpcCommand {
                                 .then(CommandManager.literal("setrespawn")
                                         .then(CommandManager.argument("id", IntegerArgumentType.integer(0))
                                                 .then(CommandManager.argument("seconds", IntegerArgumentType.integer(1))
-                                                        .executes(SpawnViolentNpcCommand::setRespawnDelay)
+                                                        .executes(StartupOrchestrator.whenLoaded(SpawnViolentNpcCommand::setRespawnDelay))
+                                                )
+                                        )
+                                )
+
+                                // Set fire immunity
+                                .then(CommandManager.literal("setfireimmune")
+                                        .then(CommandManager.argument("id", IntegerArgumentType.integer(0))
+                                                .then(CommandManager.argument("fireImmune", BoolArgumentType.bool())
+                                                        .executes(StartupOrchestrator.whenLoaded(SpawnViolentNpcCommand::setFireImmune))
                                                 )
                                         )
                                 )
@@ -114,26 +126,26 @@ public class SpawnViolentNpcCommand {
                                 // Force spawn
                                 .then(CommandManager.literal("spawn")
                                         .then(CommandManager.argument("id", IntegerArgumentType.integer(0))
-                                                .executes(SpawnViolentNpcCommand::spawn)
+                                                .executes(StartupOrchestrator.whenLoaded(SpawnViolentNpcCommand::spawn))
                                         )
                                 )
 
                                 // Despawn
                                 .then(CommandManager.literal("despawn")
                                         .then(CommandManager.argument("id", IntegerArgumentType.integer(0))
-                                                .executes(SpawnViolentNpcCommand::despawn)
+                                                .executes(StartupOrchestrator.whenLoaded(SpawnViolentNpcCommand::despawn))
                                         )
                                 )
 
                                 // List all
                                 .then(CommandManager.literal("list")
-                                        .executes(SpawnViolentNpcCommand::list)
+                                        .executes(StartupOrchestrator.whenLoaded(SpawnViolentNpcCommand::list))
                                 )
 
                                 // Remove
                                 .then(CommandManager.literal("remove")
                                         .then(CommandManager.argument("id", IntegerArgumentType.integer(0))
-                                                .executes(SpawnViolentNpcCommand::remove)
+                                                .executes(StartupOrchestrator.whenLoaded(SpawnViolentNpcCommand::remove))
                                         )
                                 )
                         ));
@@ -299,7 +311,7 @@ public class SpawnViolentNpcCommand {
         npc.spawnArea.maxX = max.x;
         npc.spawnArea.maxY = max.y;
         npc.spawnArea.maxZ = max.z;
-        ViolentNpcRegistry.forceSave();
+        ViolentNpcRegistry.saveNpc(id);
 
         ctx.getSource().sendFeedback(() -> Text.literal(
                 "§aUpdated spawn area for NPC #" + id
@@ -344,7 +356,7 @@ public class SpawnViolentNpcCommand {
         }
 
         npcOpt.get().spawnArea.maxCount = maxCount;
-        ViolentNpcRegistry.forceSave();
+        ViolentNpcRegistry.saveNpc(id);
 
         ctx.getSource().sendFeedback(() -> Text.literal(
                 "§aSet max count for NPC #" + id + " to " + maxCount
@@ -364,7 +376,7 @@ public class SpawnViolentNpcCommand {
         }
 
         npcOpt.get().spawnArea.respawnDelayTicks = seconds * 20;
-        ViolentNpcRegistry.forceSave();
+        ViolentNpcRegistry.saveNpc(id);
 
         ctx.getSource().sendFeedback(() -> Text.literal(
                 "§aSet respawn delay for NPC #" + id + " to " + seconds + " seconds"
@@ -373,6 +385,25 @@ public class SpawnViolentNpcCommand {
         return 1;
     }
 
+    private static int setFireImmune(CommandContext<ServerCommandSource> ctx) {
+        int id = IntegerArgumentType.getInteger(ctx, "id");
+        boolean fireImmune = BoolArgumentType.getBool(ctx, "fireImmune");
+
+        var npcOpt = ViolentNpcRegistry.getNpcById(Optional.of(id));
+        if (npcOpt.isEmpty()) {
+            ctx.getSource().sendError(Text.literal("NPC #" + id + " not found!"));
+            return 0;
+        }
+
+        ViolentNpcRegistry.setFireImmune(id, fireImmune);
+
+        ctx.getSource().sendFeedback(() -> Text.literal(
+                "§aNPC #" + id + " is " + (fireImmune ? "now fire immune" : "no longer fire immune")
+        ), false);
+
+        return 1;
+    }
+
     private static int spawn(CommandContext<ServerCommandSource> ctx) {
         int id = IntegerArgumentType.getInteger(ctx, "id");
         ServerWorld world = ctx.getSource().getWorld();
@@ -411,7 +442,8 @@ public class SpawnViolentNpcCommand {
             ), false);
             ctx.getSource().sendFeedback(() -> Text.literal(
                     "  §7HP:" + npc.stats.health + " DMG:" + npc.stats.attackDamage +
-                            " Count:" + npc.spawnArea.maxCount + " Respawn:" + (npc.spawnArea.respawnDelayTicks / 20) + "s"
+                            " Count:" + npc.spawnArea.maxCount + " Respawn:" + (npc.spawnArea.respawnDelayTicks / 20) + "s" +
+                            " FireImmune:" + npc.isFireImmune()
             ), false);
             ctx.getSource().sendFeedback(() -> Text.literal(
                     "  §7Area: " + formatVec3d(min) + " to " + formatVec3d(max)
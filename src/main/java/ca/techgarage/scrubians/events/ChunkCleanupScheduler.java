@@ -0,0 +1,122 @@
+package ca.techgarage.scrubians.events;
+
+import ca.techgarage.scrubians.ScrubiansConfig;
+import ca.techgarage.scrubians.npcs.TrackingMannequinEntity;
+import ca.techgarage.scrubians.npcs.violent.ViolentNpcEntity;
+import it.unimi.dsi.fastutil.longs.LongLinkedOpenHashSet;
+import net.minecraft.entity.Entity;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.WorldChunk;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs {@link ChunkNpcValidator} on chunks whose NPC
+ * population changed (the chunk loaded or an NPC entity entered it), per world.
+ *
+ * Each tick takes chunks from the worlds' queues in turn until
+ * {@link ScrubiansConfig#chunkCleanupChunksPerTick} chunks are done or
+ * {@link ScrubiansConfig#chunkCleanupBudgetMs} (or the scheduler's deadline) is used up;
+ * the rest waits for the next tick.
+ */
+public final class ChunkCleanupScheduler {
+
+    // Per world: chunks waiting for cleanup, oldest first
+    private static final Map<RegistryKey<World>, LongLinkedOpenHashSet> PENDING = new HashMap<>();
+
+    private ChunkCleanupScheduler() {
+    }
+
+    public static void onChunkLoad(ServerWorld world, WorldChunk chunk) {
+        queue(world).add(chunk.getPos().toLong());
+    }
+
+    public static void onChunkUnload(ServerWorld world, WorldChunk chunk) {
+        LongLinkedOpenHashSet queue = PENDING.get(world.getRegistryKey());
+        if (queue != null) {
+            queue.remove(chunk.getPos().toLong());
+        }
+    }
+
+    /**
+     * Called from ENTITY_LOAD - revisit the chunk when an NPC entity enters it
+     */
+    public static void onEntityLoad(Entity entity, ServerWorld world) {
+        if (entity instanceof TrackingMannequinEntity || ViolentNpcEntity.isViolentNpc(entity)) {
+            queue(world).add(entity.getChunkPos().toLong());
+        }
+    }
+
+    /**
+     * Clean up queued chunks within this tick's budget. Run once per tick by the scheduler.
+     *
+     * @return true if no chunk is left waiting
+     */
+    public static boolean tick(MinecraftServer server, long schedulerDeadline) {
+        List<ServerWorld> worlds = new ArrayList<>();
+        for (ServerWorld world : server.getWorlds()) {
+            LongLinkedOpenHashSet queue = PENDING.get(world.getRegistryKey());
+            if (queue != null && !queue.isEmpty()) {
+                worlds.add(world);
+            }
+        }
+        if (worlds.isEmpty()) return true;
+
+        long deadline = Math.min(schedulerDeadline, System.nanoTime() + ScrubiansConfig.chunkCleanupBudgetMs * 1_000_000L);
+        int remaining = ScrubiansConfig.chunkCleanupChunksPerTick;
+
+        // One chunk per world per round, so a busy dimension cannot starve the others
+        while (remaining > 0 && !worlds.isEmpty() && System.nanoTime() < deadline) {
+            for (int i = worlds.size() - 1; i >= 0 && remaining > 0; i--) {
+                ServerWorld world = worlds.get(i);
+                LongLinkedOpenHashSet queue = PENDING.get(world.getRegistryKey());
+                long pos = queue.removeFirstLong();
+                if (queue.isEmpty()) worlds.remove(i);
+
+                WorldChunk chunk = world.getChunkManager().getWorldChunk(
+                        ChunkPos.getPackedX(pos),
+                        ChunkPos.getPackedZ(pos)
+                );
+                if (chunk != null) {
+                    ChunkNpcValidator.validate(world, chunk);
+                    remaining--;
+                }
+            }
+        }
+        return worlds.isEmpty();
+    }
+
+    /**
+     * @return chunks waiting for cleanup across all worlds
+     */
+    public static int getBacklog() {
+        int backlog = 0;
+        for (LongLinkedOpenHashSet queue : PENDING.values()) {
+            backlog += queue.size();
+        }
+        return backlog;
+    }
+
+    /**
+     * @return chunks waiting for cleanup in one world
+     */
+    public static int getBacklog(ServerWorld world) {
+        LongLinkedOpenHashSet queue = PENDING.get(world.getRegistryKey());
+        return queue == null ? 0 : queue.size();
+    }
+
+    public static void clear() {
+        PENDING.clear();
+    }
+
+    private static LongLinkedOpenHashSet queue(ServerWorld world) {
+        return PENDING.computeIfAbsent(world.getRegistryKey(), key -> new LongLinkedOpenHashSet());
+    }
+}
@@ -0,0 +1,98 @@
+package ca.techgarage.scrubians.events;
+
+import ca.techgarage.scrubians.Scrubians;
+import ca.techgarage.scrubians.npcs.NpcRegistry;
+import ca.techgarage.scrubians.npcs.TrackingMannequinEntity;
+import ca.techgarage.scrubians.npcs.violent.ViolentNpcEntity;
+import ca.techgarage.scrubians.npcs.violent.ViolentNpcMarker;
+import ca.techgarage.scrubians.npcs.violent.ViolentNpcRegistry;
+import net.minecraft.entity.Entity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.TypeFilter;
+import net.minecraft.util.math.Box;
+import net.minecraft.world.chunk.WorldChunk;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Removes mannequin NPCs and violent NPCs whose id is no longer registered.
+ *
+ * One entity query per chunk covers both kinds: the box spans the chunk column
+ * between the world's build limits, so only that column's entity sections are visited,
+ * and only invalid entities are collected. A clean chunk allocates nothing but the box.
+ */
+public final class ChunkNpcValidator {
+
+    private static final TypeFilter<Entity, Entity> ANY_ENTITY = TypeFilter.instanceOf(Entity.class);
+
+    private static final Predicate<Entity> INVALID = entity -> {
+        if (entity instanceof TrackingMannequinEntity npc) {
+            int npcId = npc.getNpcId();
+            return npcId < 0 || !NpcRegistry.contains(npcId);
+        }
+        ViolentNpcMarker marker = ViolentNpcEntity.getMarker(entity);
+        if (!marker.violent()) return false;
+        Optional<Integer> npcId = marker.npcId();
+        return npcId.isEmpty() || npcId.get() < 0 || !ViolentNpcRegistry.contains(npcId.get());
+    };
+
+    // Reused between calls; only ever holds invalid entities
+    private static final List<Entity> INVALID_FOUND = new ArrayList<>();
+
+    private static int mannequinsRemoved = 0;
+    private static int violentRemoved = 0;
+
+    private ChunkNpcValidator() {
+    }
+
+    /**
+     * Remove every invalid NPC entity in the chunk
+     */
+    public static void validate(ServerWorld world, WorldChunk chunk) {
+        int chunkX = chunk.getPos().getStartX();
+        int chunkZ = chunk.getPos().getStartZ();
+        Box chunkBox = new Box(
+                chunkX, world.getBottomY(), chunkZ,
+                chunkX + 16, world.getTopYInclusive() + 1, chunkZ + 16
+        );
+
+        world.collectEntitiesByType(ANY_ENTITY, chunkBox, INVALID, INVALID_FOUND, Integer.MAX_VALUE);
+        if (INVALID_FOUND.isEmpty()) return;
+
+        try {
+            for (Entity entity : INVALID_FOUND) {
+                String name = entity.getCustomName() != null ? entity.getCustomName().getString() : "Unknown";
+                if (entity instanceof TrackingMannequinEntity npc) {
+                    Scrubians.logger("info", "[Scrubians] Chunk cleanup: Removing invalid mannequin '" + name
+                            + "' (ID: " + npc.getNpcId() + ") at " + entity.getEntityPos());
+                    mannequinsRemoved++;
+                } else {
+                    int id = ViolentNpcEntity.getNpcId(entity).orElse(-1);
+                    Scrubians.logger("info", "[Scrubians] Chunk cleanup: Removing invalid violent NPC '" + name
+                            + "' (ID: " + id + ") at " + entity.getEntityPos());
+                    violentRemoved++;
+                }
+                entity.discard();
+            }
+        } finally {
+            INVALID_FOUND.clear();
+        }
+    }
+
+    /**
+     * Get total count of invalid mannequins removed this session
+     */
+    public static int getMannequinsRemoved() {
+        return mannequinsRemoved;
+    }
+
+    /**
+     * Get total count of invalid violent NPCs removed this session
+     */
+    public static int getViolentRemoved() {
+        return violentRemoved;
+    }
+}
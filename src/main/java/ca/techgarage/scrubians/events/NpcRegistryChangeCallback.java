@@ -0,0 +1,49 @@
+package ca.techgarage.scrubians.events;
+
+import net.fabricmc.fabric.api.event.Event;
+import net.fabricmc.fabric.api.event.EventFactory;
+
+/**
+ * Event callback for edits to the NPC registry, fired on the server thread right after the change.
+ * Loaded mannequins use it to pick up edits instead of polling the registry.
+ *
+ * Example usage in another mod:
+ * NpcRegistryChangeCallback.EVENT.register((npcId, change) -> {
+ *     if (change == NpcRegistryChangeCallback.Change.REMOVED) {
+ *         // NPC #npcId is gone
+ *     }
+ * });
+ */
+@FunctionalInterface
+public interface NpcRegistryChangeCallback {
+
+    enum Change {
+        ADDED,
+        REMOVED,
+        NAME,
+        SKIN,
+        PATH,
+        DIALOGUE,
+        TRADES
+    }
+
+    /**
+     * The event instance that other mods can register to
+     */
+    Event<NpcRegistryChangeCallback> EVENT = EventFactory.createArrayBacked(
+            NpcRegistryChangeCallback.class,
+            (listeners) -> (npcId, change) -> {
+                for (NpcRegistryChangeCallback listener : listeners) {
+                    listener.onNpcChanged(npcId, change);
+                }
+            }
+    );
+
+    /**
+     * Called after an NPC was added, removed or edited
+     *
+     * @param npcId The NPC's registry ID
+     * @param change What changed
+     */
+    void onNpcChanged(int npcId, Change change);
+}
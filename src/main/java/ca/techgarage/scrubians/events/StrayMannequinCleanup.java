@@ -0,0 +1,59 @@
+package ca.techgarage.scrubians.events;
+
+import ca.techgarage.scrubians.Scrubians;
+import ca.techgarage.scrubians.npcs.TrackingMannequinEntity;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.decoration.MannequinEntity;
+import net.minecraft.server.world.ServerWorld;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Removes plain (non-NPC) mannequins once, when they enter the world.
+ *
+ * Entities cannot be removed from inside the load event, so strays are queued
+ * and discarded at the end of the tick.
+ */
+public class StrayMannequinCleanup {
+
+    private static final List<MannequinEntity> PENDING = new ArrayList<>();
+    private static int totalRemoved = 0;
+
+    /**
+     * Called from ENTITY_LOAD - queues the entity if it is a stray mannequin
+     */
+    public static void onEntityLoad(Entity entity, ServerWorld world) {
+        if (entity instanceof MannequinEntity mannequin && !(mannequin instanceof TrackingMannequinEntity)) {
+            PENDING.add(mannequin);
+        }
+    }
+
+    /**
+     * Discard the queued mannequins. Call once per server tick.
+     */
+    public static void tick() {
+        if (PENDING.isEmpty()) return;
+
+        int removed = 0;
+        for (MannequinEntity mannequin : PENDING) {
+            if (!mannequin.isRemoved()) {
+                mannequin.discard();
+                removed++;
+            }
+        }
+        PENDING.clear();
+
+        if (removed > 0) {
+            totalRemoved += removed;
+            Scrubians.logger("info", "[Scrubians] Removed " + removed + " stray mannequin(s)");
+        }
+    }
+
+    /**
+     * Get total count of stray mannequins removed this session
+     */
+    public static int getTotalRemoved() {
+        return totalRemoved;
+    }
+}
@@ -0,0 +1,36 @@
+package ca.techgarage.scrubians.mixin;
+
+import ca.techgarage.scrubians.npcs.violent.ViolentNpcEntity;
+import ca.techgarage.scrubians.npcs.violent.ViolentNpcMarker;
+import ca.techgarage.scrubians.npcs.violent.ViolentNpcMarkerHolder;
+import net.minecraft.entity.Entity;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+@Mixin(Entity.class)
+public abstract class EntityMixin implements ViolentNpcMarkerHolder {
+
+    @Unique
+    private ViolentNpcMarker scrubians$violentMarker;
+
+    // Vanilla checks this before burning, lava ignition, fire damage and the on-fire flag
+    @Inject(method = "isFireImmune", at = @At("HEAD"), cancellable = true)
+    private void scrubians$violentNpcFireImmunity(CallbackInfoReturnable<Boolean> cir) {
+        if (ViolentNpcEntity.isFireImmune((Entity) (Object) this)) {
+            cir.setReturnValue(true);
+        }
+    }
+
+    @Override
+    public ViolentNpcMarker scrubians$getViolentMarker() {
+        return this.scrubians$violentMarker;
+    }
+
+    @Override
+    public void scrubians$setViolentMarker(ViolentNpcMarker marker) {
+        this.scrubians$violentMarker = marker;
+    }
+}
@@ -2,21 +2,36 @@ package ca.techgarage.scrubians.npcs;
 
 import ca.techgarage.scrubians.Scrubians;
 import com.mojang.authlib.GameProfile;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import net.minecraft.component.DataComponentTypes;
 import net.minecraft.component.type.ProfileComponent;
 import net.minecraft.entity.EntityType;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.text.Text;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
 import net.minecraft.util.math.Vec3d;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
 public final class NpcEntityFactory {
 
+    // NPC id -> respawn still waiting on its skin; at most one per NPC. Server thread only.
+    private static final Int2ObjectMap<CompletableFuture<TrackingMannequinEntity>> IN_FLIGHT = new Int2ObjectOpenHashMap<>();
+    // Lower-cased skin name -> profile lookup in progress, shared by every NPC wearing that skin
+    private static final Map<String, CompletableFuture<GameProfile>> SKIN_LOOKUPS = new HashMap<>();
+    // Lower-cased skin name -> profile fetched ahead of time during startup
+    private static final Map<String, GameProfile> PREFETCHED = new HashMap<>();
+
     /**
      * Creates a NEW player NPC with proper skin textures asynchronously.
      * This registers a NEW entry in the registry and gets a NEW ID.
@@ -30,7 +45,7 @@ public final class NpcEntityFactory {
             boolean attackable
     ) {
         // Register NPC in registry FIRST and get unique ID
-        int registryId = NpcRegistry.registerNpc(name, pos);
+        int registryId = NpcRegistry.registerNpc(name, pos, world.getRegistryKey());
 
         // Save the skin to registry
         if (skinName != null && !skinName.equals(".")) {
@@ -58,24 +73,56 @@ public final class NpcEntityFactory {
         }
 
         // Check if NPC already exists in world
-        List<TrackingMannequinEntity> existing = new ArrayList<>();
-        world.iterateEntities().forEach(entity -> {
-            if (entity instanceof TrackingMannequinEntity npcEntity) {
-                if (npcEntity.getNpcId() == npcId) {
-                    existing.add(npcEntity);
-                }
-            }
-        });
-
-        if (!existing.isEmpty()) {
-            return CompletableFuture.completedFuture(existing.get(0));
+        TrackingMannequinEntity existing = NpcEntityIndex.get(world, npcId);
+        if (existing != null) {
+            return CompletableFuture.completedFuture(existing);
+        }
+        CompletableFuture<TrackingMannequinEntity> inFlight = IN_FLIGHT.get(npcId);
+        if (inFlight != null) {
+            return inFlight;
         }
 
         NpcRegistry.NpcData npcData = npcDataOpt.get();
         Vec3d pos = npcData.getPosition();
+
+        // Never force a chunk in; the NPC is queued and appears once the chunk and its entities load
+        BlockPos blockPos = BlockPos.ofFloored(pos);
+        if (!world.isChunkLoaded(ChunkPos.toLong(blockPos))) {
+            NpcReconciler.enqueue(world, npcData);
+            return CompletableFuture.failedFuture(new IllegalStateException(
+                    "NPC #" + npcId + "'s chunk is not loaded, it will spawn when the chunk loads"));
+        }
+
         String skinName = npcData.skin != null ? npcData.skin : ".";
         // Create entity with EXISTING ID - does NOT call registerNpc()
-        return createNpcEntity(world, npcId, pos, npcData.name, skinName, false);
+        CompletableFuture<TrackingMannequinEntity> spawn = createNpcEntity(world, npcId, pos, npcData.name, skinName, false);
+        if (!spawn.isDone()) {
+            IN_FLIGHT.put(npcId, spawn);
+            // Async variant: a failed lookup would otherwise complete this on the lookup thread
+            spawn.whenCompleteAsync((entity, ex) -> IN_FLIGHT.remove(npcId, spawn), world.getServer());
+        }
+        return spawn;
+    }
+
+    /**
+     * @return true if a respawn of this NPC is waiting on its skin
+     */
+    public static boolean isInFlight(int npcId) {
+        return IN_FLIGHT.containsKey(npcId);
+    }
+
+    /**
+     * @return NPC respawns waiting on their skin
+     */
+    public static int getInFlightCount() {
+        return IN_FLIGHT.size();
+    }
+
+    /**
+     * @return distinct skin lookups in progress
+     */
+    public static int getSkinLookupCount() {
+        return SKIN_LOOKUPS.size();
     }
 
     /**
@@ -110,14 +157,82 @@ public final class NpcEntityFactory {
             return CompletableFuture.completedFuture(npc);
         }
 
-        // Dynamic profile with skin
-        ProfileComponent dynamicProfile = ProfileComponent.ofDynamic(skinName);
-
-        return dynamicProfile.resolve(server.getApiServices().profileResolver())
+        return resolveSkin(server, skinName)
                 .thenApplyAsync(resolvedProfile -> {
+                    // The world may have moved on while the skin was looked up
+                    TrackingMannequinEntity existing = NpcEntityIndex.get(world, npcId);
+                    if (existing != null) {
+                        return existing;
+                    }
+                    if (!world.isChunkLoaded(ChunkPos.toLong(npc.getBlockPos()))) {
+                        NpcRegistry.getNpcById(npcId).ifPresent(data -> NpcReconciler.enqueue(world, data));
+                        throw new IllegalStateException("NPC #" + npcId + "'s chunk unloaded during the skin lookup, it will spawn when the chunk loads");
+                    }
                     npc.setComponent(DataComponentTypes.PROFILE, ProfileComponent.ofStatic(resolvedProfile));
                     world.spawnEntity(npc);
                     return npc;
                 }, server);
     }
+
+    /**
+     * Re-skin a loaded NPC in place after its skin was edited.
+     */
+    public static void applySkin(ServerWorld world, TrackingMannequinEntity npc, String skinName) {
+        if (skinName == null || skinName.equals(".")) {
+            npc.setComponent(DataComponentTypes.PROFILE, ProfileComponent.Static.EMPTY);
+            return;
+        }
+        resolveSkin(world.getServer(), skinName)
+                .thenAcceptAsync(resolvedProfile -> {
+                    // Skip if the entity is gone or the skin was edited again meanwhile
+                    var npcData = NpcRegistry.getNpcById(npc.getNpcId());
+                    if (npc.isRemoved() || npcData.isEmpty() || !skinName.equals(npcData.get().skin)) return;
+                    npc.setComponent(DataComponentTypes.PROFILE, ProfileComponent.ofStatic(resolvedProfile));
+                }, world.getServer())
+                .exceptionally(ex -> {
+                    Scrubians.logger("warning", "[Scrubians] Failed to apply skin " + skinName + " to NPC #" + npc.getNpcId() + ": " + ex.getMessage());
+                    return null;
+                });
+    }
+
+    /**
+     * Look up skins ahead of their NPCs; spawns reuse the results until {@link #clearPrefetched()}.
+     * Call on the server thread.
+     *
+     * @return completes once every lookup has finished, successfully or not
+     */
+    public static CompletableFuture<Void> prefetchSkins(MinecraftServer server, Collection<String> skinNames) {
+        List<CompletableFuture<?>> lookups = new ArrayList<>();
+        for (String skinName : skinNames) {
+            if (skinName == null || skinName.equals(".")) continue;
+            String key = skinName.toLowerCase(Locale.ROOT);
+            if (PREFETCHED.containsKey(key)) continue;
+            lookups.add(resolveSkin(server, skinName)
+                    .thenAcceptAsync(profile -> PREFETCHED.put(key, profile), server)
+                    .exceptionally(ex -> null));
+        }
+        return CompletableFuture.allOf(lookups.toArray(new CompletableFuture[0]));
+    }
+
+    public static void clearPrefetched() {
+        PREFETCHED.clear();
+    }
+
+    private static CompletableFuture<GameProfile> resolveSkin(MinecraftServer server, String skinName) {
+        String key = skinName.toLowerCase(Locale.ROOT);
+        GameProfile prefetched = PREFETCHED.get(key);
+        if (prefetched != null) {
+            return CompletableFuture.completedFuture(prefetched);
+        }
+        CompletableFuture<GameProfile> lookup = SKIN_LOOKUPS.get(key);
+        if (lookup == null) {
+            lookup = ProfileComponent.ofDynamic(skinName).resolve(server.getApiServices().profileResolver());
+            if (!lookup.isDone()) {
+                SKIN_LOOKUPS.put(key, lookup);
+                CompletableFuture<GameProfile> done = lookup;
+                lookup.whenCompleteAsync((profile, ex) -> SKIN_LOOKUPS.remove(key, done), server);
+            }
+        }
+        return lookup;
+    }
 }
\ No newline at end of file
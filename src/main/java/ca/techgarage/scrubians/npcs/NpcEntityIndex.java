@@ -0,0 +1,149 @@
+package ca.techgarage.scrubians.npcs;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.decoration.MannequinEntity;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.world.World;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Loaded NPC mannequins per world, kept up to date from the entity load/unload events,
+ * so finding the entity of NPC #n is a map lookup instead of a scan of every entity.
+ *
+ * Plain (non-tracking) mannequins are tracked separately so cleanup code can find
+ * them without a scan either. Server thread only.
+ */
+public final class NpcEntityIndex {
+
+    private static final Map<RegistryKey<World>, WorldIndex> WORLDS = new HashMap<>();
+
+    private static final class WorldIndex {
+        // Normally one entity per id; duplicates stay listed until they unload
+        final Int2ObjectMap<List<TrackingMannequinEntity>> byNpcId = new Int2ObjectOpenHashMap<>();
+        final Set<MannequinEntity> untracked = new ReferenceOpenHashSet<>();
+    }
+
+    private NpcEntityIndex() {
+    }
+
+    public static void onEntityLoad(Entity entity, ServerWorld world) {
+        if (entity instanceof TrackingMannequinEntity npc) {
+            add(index(world), npc.getNpcId(), npc);
+        } else if (entity instanceof MannequinEntity mannequin) {
+            index(world).untracked.add(mannequin);
+        }
+    }
+
+    public static void onEntityUnload(Entity entity, ServerWorld world) {
+        WorldIndex index = WORLDS.get(world.getRegistryKey());
+        if (index == null) return;
+        if (entity instanceof TrackingMannequinEntity npc) {
+            remove(index, npc.getNpcId(), npc);
+        } else if (entity instanceof MannequinEntity mannequin) {
+            index.untracked.remove(mannequin);
+        }
+    }
+
+    /**
+     * Move a loaded mannequin to its new id; ignored for entities not in a world yet.
+     */
+    static void onNpcIdChanged(TrackingMannequinEntity npc, int oldId) {
+        if (!(npc.getEntityWorld() instanceof ServerWorld world)) return;
+        WorldIndex index = WORLDS.get(world.getRegistryKey());
+        if (index != null && remove(index, oldId, npc)) {
+            add(index, npc.getNpcId(), npc);
+        }
+    }
+
+    /**
+     * @return a loaded mannequin for the NPC, or null if none is loaded in this world
+     */
+    public static TrackingMannequinEntity get(ServerWorld world, int npcId) {
+        WorldIndex index = WORLDS.get(world.getRegistryKey());
+        if (index == null) return null;
+        List<TrackingMannequinEntity> entities = index.byNpcId.get(npcId);
+        if (entities == null) return null;
+        for (TrackingMannequinEntity npc : entities) {
+            if (!npc.isRemoved()) return npc;
+        }
+        return null;
+    }
+
+    /**
+     * @return every loaded NPC mannequin in the world (a copy, safe to discard entities while iterating)
+     */
+    public static List<TrackingMannequinEntity> getAll(ServerWorld world) {
+        WorldIndex index = WORLDS.get(world.getRegistryKey());
+        List<TrackingMannequinEntity> all = new ArrayList<>();
+        if (index == null) return all;
+        for (List<TrackingMannequinEntity> entities : index.byNpcId.values()) {
+            all.addAll(entities);
+        }
+        return all;
+    }
+
+    /**
+     * Visit every loaded NPC mannequin in the world without copying them.
+     * The action must not load, unload or re-id mannequins.
+     */
+    public static void forEach(ServerWorld world, Consumer<TrackingMannequinEntity> action) {
+        WorldIndex index = WORLDS.get(world.getRegistryKey());
+        if (index == null) return;
+        for (List<TrackingMannequinEntity> entities : index.byNpcId.values()) {
+            for (TrackingMannequinEntity npc : entities) {
+                action.accept(npc);
+            }
+        }
+    }
+
+    /**
+     * @return every loaded mannequin of the NPC, in any world (a copy, duplicates included)
+     */
+    public static List<TrackingMannequinEntity> getLoaded(int npcId) {
+        List<TrackingMannequinEntity> loaded = new ArrayList<>(1);
+        for (WorldIndex index : WORLDS.values()) {
+            List<TrackingMannequinEntity> entities = index.byNpcId.get(npcId);
+            if (entities != null) loaded.addAll(entities);
+        }
+        return loaded;
+    }
+
+    /**
+     * @return loaded mannequins that are not NPCs (a copy)
+     */
+    public static List<MannequinEntity> getUntracked(ServerWorld world) {
+        WorldIndex index = WORLDS.get(world.getRegistryKey());
+        return index == null ? new ArrayList<>() : new ArrayList<>(index.untracked);
+    }
+
+    public static void clear() {
+        WORLDS.clear();
+    }
+
+    private static WorldIndex index(ServerWorld world) {
+        return WORLDS.computeIfAbsent(world.getRegistryKey(), key -> new WorldIndex());
+    }
+
+    private static void add(WorldIndex index, int npcId, TrackingMannequinEntity npc) {
+        List<TrackingMannequinEntity> entities = index.byNpcId.computeIfAbsent(npcId, id -> new ObjectArrayList<>(1));
+        if (!entities.contains(npc)) entities.add(npc);
+    }
+
+    private static boolean remove(WorldIndex index, int npcId, TrackingMannequinEntity npc) {
+        List<TrackingMannequinEntity> entities = index.byNpcId.get(npcId);
+        if (entities == null || !entities.remove(npc)) return false;
+        if (entities.isEmpty()) index.byNpcId.remove(npcId);
+        return true;
+    }
+}
@@ -0,0 +1,59 @@
+package ca.techgarage.scrubians.npcs;
+
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ServerWorld;
+
+import java.util.ArrayDeque;
+
+/**
+ * Nearest-player searches for NPC mannequins, run by the scheduler every tick.
+ *
+ * Each mannequin searches once every {@link #INTERVAL} ticks on its own phase
+ * ((age + npc id) % interval), so the searches are spread over the interval instead
+ * of landing on one tick. Only mannequins in chunks that tick entities are visited.
+ * Searches cut off by the deadline run first on the next tick. Server thread only.
+ */
+public final class NpcLookTargets {
+
+    // Ticks between two nearest-player searches of one mannequin
+    public static final int INTERVAL = 10;
+    // Checking the clock after every mannequin would cost more than the search itself
+    private static final int DEADLINE_CHECK_MASK = 15;
+
+    private static final ArrayDeque<TrackingMannequinEntity> DUE = new ArrayDeque<>();
+
+    private NpcLookTargets() {
+    }
+
+    /**
+     * Budgeted scheduler task: queue the mannequins whose phase is due and search for as many as the deadline allows.
+     *
+     * @return true if every due mannequin has searched
+     */
+    public static boolean tick(MinecraftServer server, long deadline) {
+        for (ServerWorld world : server.getWorlds()) {
+            NpcEntityIndex.forEach(world, npc -> {
+                if (Math.floorMod(npc.age + npc.getNpcId(), INTERVAL) == 0
+                        && world.shouldTickEntity(npc.getBlockPos())) {
+                    DUE.add(npc);
+                }
+            });
+        }
+
+        int done = 0;
+        while (!DUE.isEmpty()) {
+            if ((++done & DEADLINE_CHECK_MASK) == 0 && System.nanoTime() >= deadline) {
+                return false;
+            }
+            TrackingMannequinEntity npc = DUE.poll();
+            if (!npc.isRemoved()) {
+                npc.refreshLookTarget();
+            }
+        }
+        return true;
+    }
+
+    public static void clear() {
+        DUE.clear();
+    }
+}
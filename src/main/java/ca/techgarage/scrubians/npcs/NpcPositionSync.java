@@ -0,0 +1,58 @@
+package ca.techgarage.scrubians.npcs;
+
+import ca.techgarage.scrubians.ScrubiansConfig;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.Vec3d;
+
+/**
+ * Carries mannequin positions back into {@link NpcRegistry}.
+ *
+ * Mannequins only queue a position once they moved further than
+ * {@link ScrubiansConfig#positionSyncMinMove} or into another chunk, so standing
+ * NPCs never touch the registry. The queue is applied once per server tick.
+ */
+public final class NpcPositionSync {
+
+    // npcId -> latest reported position, applied and cleared by flush()
+    private static final Int2ObjectMap<Vec3d> PENDING = new Int2ObjectOpenHashMap<>();
+
+    private NpcPositionSync() {
+    }
+
+    /**
+     * @param synced   position last handed to the registry
+     * @param position current entity position
+     * @return true if the move is worth recording
+     */
+    public static boolean hasMoved(Vec3d synced, Vec3d position) {
+        if (chunkCoord(synced.x) != chunkCoord(position.x) || chunkCoord(synced.z) != chunkCoord(position.z)) {
+            return true;
+        }
+        double minMove = ScrubiansConfig.positionSyncMinMove / 100.0;
+        return synced.squaredDistanceTo(position) > minMove * minMove;
+    }
+
+    /**
+     * Queue a position for the next flush; a later report for the same NPC replaces it.
+     */
+    public static void queue(int npcId, Vec3d position) {
+        PENDING.put(npcId, position);
+    }
+
+    /**
+     * Apply every queued position to the registry. Call once per server tick.
+     */
+    public static void flush() {
+        if (PENDING.isEmpty()) return;
+        for (Int2ObjectMap.Entry<Vec3d> entry : PENDING.int2ObjectEntrySet()) {
+            NpcRegistry.changePosition(entry.getIntKey(), entry.getValue());
+        }
+        PENDING.clear();
+    }
+
+    private static int chunkCoord(double coord) {
+        return MathHelper.floor(coord) >> 4;
+    }
+}
@@ -0,0 +1,266 @@
+package ca.techgarage.scrubians.npcs;
+
+import ca.techgarage.scrubians.Scrubians;
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.entity.Entity;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.WorldChunk;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps the loaded mannequins in line with the registry.
+ *
+ * NPCs with no entity in their home dimension wait in a queue keyed by their home chunk.
+ * They are queued when their entity unloads (or at startup) and leave the queue when one
+ * loads. When a chunk with queued NPCs loads, it is held until its entities have loaded
+ * too and is then drained, so NPCs appear exactly when their chunk does: never in an
+ * unloaded chunk, the wrong dimension, or next to their own saved entity.
+ * Nothing is polled; with no such chunk loaded a tick does no work. Server thread only.
+ */
+public final class NpcReconciler {
+
+    private static final Map<RegistryKey<World>, WorldQueue> WORLDS = new HashMap<>();
+
+    private static int lastChecked = 0;
+    private static int lastSpawned = 0;
+    private static long totalSpawned = 0;
+
+    private static final class WorldQueue {
+        // Home chunk -> missing NPCs that live in it
+        final Long2ObjectMap<IntSet> pending = new Long2ObjectOpenHashMap<>();
+        // Loaded chunks with pending NPCs, waiting for the chunk's entities to load
+        final LongSet ready = new LongOpenHashSet();
+    }
+
+    private NpcReconciler() {
+    }
+
+    public static void onChunkLoad(ServerWorld world, WorldChunk chunk) {
+        WorldQueue queue = WORLDS.get(world.getRegistryKey());
+        long pos = chunk.getPos().toLong();
+        if (queue != null && queue.pending.containsKey(pos)) {
+            queue.ready.add(pos);
+        }
+    }
+
+    public static void onChunkUnload(ServerWorld world, WorldChunk chunk) {
+        WorldQueue queue = WORLDS.get(world.getRegistryKey());
+        if (queue != null) {
+            queue.ready.remove(chunk.getPos().toLong());
+        }
+    }
+
+    public static void onEntityLoad(Entity entity, ServerWorld world) {
+        // Before the registry is loaded there is no queue yet; markAllMissing builds it afterwards
+        if (!(entity instanceof TrackingMannequinEntity npc) || !NpcRegistry.isLoaded()) return;
+        NpcRegistry.NpcData data = NpcRegistry.getNpcById(npc.getNpcId()).orElse(null);
+        if (data == null || !data.getHomeDimension().equals(world.getRegistryKey())) return;
+
+        WorldQueue queue = WORLDS.get(world.getRegistryKey());
+        if (queue != null) {
+            dequeue(queue, homeChunk(data), data.id);
+        }
+    }
+
+    /**
+     * Must run after {@link NpcEntityIndex#onEntityUnload}, so a remaining duplicate still counts as present.
+     */
+    public static void onEntityUnload(Entity entity, ServerWorld world) {
+        if (!(entity instanceof TrackingMannequinEntity npc) || !NpcRegistry.isLoaded()) return;
+        NpcRegistry.NpcData data = NpcRegistry.getNpcById(npc.getNpcId()).orElse(null);
+        if (data != null && data.getHomeDimension().equals(world.getRegistryKey())
+                && NpcEntityIndex.get(world, data.id) == null) {
+            enqueue(world, data);
+        }
+    }
+
+    /**
+     * Queue every registry NPC without a loaded entity (after startup or a registry reload).
+     */
+    public static void markAllMissing(MinecraftServer server) {
+        for (NpcRegistry.NpcData npc : NpcRegistry.getAllNpcs()) {
+            ServerWorld world = server.getWorld(npc.getHomeDimension());
+            if (world != null && NpcEntityIndex.get(world, npc.id) == null) {
+                enqueue(world, npc);
+            }
+        }
+    }
+
+    /**
+     * Queue one NPC to appear when its home chunk loads (next tick if it already is).
+     */
+    public static void enqueue(ServerWorld world, NpcRegistry.NpcData npc) {
+        long pos = park(world, npc);
+        if (world.getChunkManager().isChunkLoaded(ChunkPos.getPackedX(pos), ChunkPos.getPackedZ(pos))) {
+            WORLDS.get(world.getRegistryKey()).ready.add(pos);
+        }
+    }
+
+    /**
+     * Spawn the NPCs of loaded chunks whose entities have finished loading, until the deadline.
+     * Run once per tick by the scheduler.
+     *
+     * @return true if no loaded chunk is left to drain
+     */
+    public static boolean tick(MinecraftServer server, long deadline) {
+        if (WORLDS.isEmpty()) return true;
+        boolean drained = false;
+        boolean left = false;
+
+        for (ServerWorld world : server.getWorlds()) {
+            WorldQueue queue = WORLDS.get(world.getRegistryKey());
+            if (queue == null || queue.ready.isEmpty()) continue;
+
+            // Copied: draining can queue NPCs that moved into other loaded chunks
+            for (long pos : queue.ready.toLongArray()) {
+                if (drained && System.nanoTime() >= deadline) {
+                    left = true;
+                    break;
+                }
+                if (!world.getChunkManager().isChunkLoaded(ChunkPos.getPackedX(pos), ChunkPos.getPackedZ(pos))) {
+                    // Unloaded again before its entities came in; CHUNK_LOAD will bring it back
+                    queue.ready.remove(pos);
+                    continue;
+                }
+                if (!world.isChunkLoaded(pos)) continue; // entities still loading
+
+                queue.ready.remove(pos);
+                IntSet ids = queue.pending.remove(pos);
+                if (ids != null) {
+                    if (!drained) {
+                        lastChecked = 0;
+                        lastSpawned = 0;
+                        drained = true;
+                    }
+                    drain(world, pos, ids);
+                }
+            }
+        }
+        return !left;
+    }
+
+    /**
+     * @return registry NPCs queued without a loaded entity
+     */
+    public static int getMissingCount() {
+        int missing = 0;
+        for (WorldQueue queue : WORLDS.values()) {
+            for (IntSet ids : queue.pending.values()) {
+                missing += ids.size();
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * @return loaded chunks waiting to be drained
+     */
+    public static int getReadyChunkCount() {
+        int ready = 0;
+        for (WorldQueue queue : WORLDS.values()) {
+            ready += queue.ready.size();
+        }
+        return ready;
+    }
+
+    /**
+     * @return true if a ready chunk has its entities loaded and will be drained on a coming tick
+     */
+    public static boolean hasDrainableChunk(MinecraftServer server) {
+        for (ServerWorld world : server.getWorlds()) {
+            WorldQueue queue = WORLDS.get(world.getRegistryKey());
+            if (queue == null) continue;
+            for (long pos : queue.ready) {
+                if (world.isChunkLoaded(pos)) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return NPCs looked at by the last tick that drained a chunk
+     */
+    public static int getLastChecked() {
+        return lastChecked;
+    }
+
+    /**
+     * @return NPCs spawned by the last tick that drained a chunk
+     */
+    public static int getLastSpawned() {
+        return lastSpawned;
+    }
+
+    /**
+     * @return NPCs spawned by the reconciler this session
+     */
+    public static long getTotalSpawned() {
+        return totalSpawned;
+    }
+
+    public static void clear() {
+        WORLDS.clear();
+        lastChecked = 0;
+        lastSpawned = 0;
+    }
+
+    private static void drain(ServerWorld world, long pos, IntSet ids) {
+        IntIterator it = ids.iterator();
+        while (it.hasNext()) {
+            int id = it.nextInt();
+            lastChecked++;
+            NpcRegistry.NpcData npc = NpcRegistry.getNpcById(id).orElse(null);
+            if (npc == null || NpcEntityFactory.isInFlight(id) || NpcEntityIndex.get(world, id) != null) continue;
+            if (!npc.getHomeDimension().equals(world.getRegistryKey()) || homeChunk(npc) != pos) {
+                // Moved while queued; wait for its new home chunk instead
+                ServerWorld home = world.getServer().getWorld(npc.getHomeDimension());
+                if (home != null) enqueue(home, npc);
+                continue;
+            }
+
+            lastSpawned++;
+            totalSpawned++;
+            NpcEntityFactory.respawnNpcFromRegistry(world, id).exceptionally(ex -> {
+                Scrubians.logger("warning", "[Scrubians] Failed to respawn NPC #" + id + ": " + ex.getMessage());
+                world.getServer().execute(() -> {
+                    // Try again the next time the chunk loads rather than every tick
+                    if (NpcEntityIndex.get(world, id) == null) park(world, npc);
+                });
+                return null;
+            });
+        }
+    }
+
+    // Queue without checking whether the chunk is loaded; returns the home chunk
+    private static long park(ServerWorld world, NpcRegistry.NpcData npc) {
+        WorldQueue queue = WORLDS.computeIfAbsent(world.getRegistryKey(), key -> new WorldQueue());
+        long pos = homeChunk(npc);
+        queue.pending.computeIfAbsent(pos, p -> new IntOpenHashSet(2)).add(npc.id);
+        return pos;
+    }
+
+    private static void dequeue(WorldQueue queue, long pos, int id) {
+        IntSet ids = queue.pending.get(pos);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            queue.pending.remove(pos);
+            queue.ready.remove(pos);
+        }
+    }
+
+    private static long homeChunk(NpcRegistry.NpcData npc) {
+        return ChunkPos.toLong(MathHelper.floor(npc.x) >> 4, MathHelper.floor(npc.z) >> 4);
+    }
+}
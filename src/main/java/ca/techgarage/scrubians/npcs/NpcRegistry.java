@@ -1,29 +1,114 @@
 package ca.techgarage.scrubians.npcs;
 
 import ca.techgarage.scrubians.Scrubians;
+import ca.techgarage.scrubians.ScrubiansConfig;
+import ca.techgarage.scrubians.events.NpcRegistryChangeCallback;
+import ca.techgarage.scrubians.events.NpcRegistryChangeCallback.Change;
+import ca.techgarage.scrubians.persistence.AsyncRegistryWriter;
+import ca.techgarage.scrubians.persistence.NpcBinaryFormat;
+import ca.techgarage.scrubians.persistence.RegistryJournal;
+import ca.techgarage.scrubians.persistence.StorageMode;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import it.unimi.dsi.fastutil.ints.Int2LongMap;
+import it.unimi.dsi.fastutil.ints.Int2LongOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMaps;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import it.unimi.dsi.fastutil.longs.Long2LongMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
 import net.minecraft.item.ItemStack;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.MathHelper;
 import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.World;
 
 import java.io.File;
-import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 
 /**
  * The type Npc registry.
  */
 public final class NpcRegistry {
 
-    private static final List<NpcData> NPC_LIST = new ArrayList<>();
+    // Ordered list for iteration/saving, id index for lookups - replaced together by publish().
+    // Neither is modified after publishing, so getAllNpcs() and getNpcById() are safe from any thread.
+    private static volatile List<NpcData> NPC_LIST = List.of();
+    private static volatile Int2ObjectMap<NpcData> NPC_INDEX = Int2ObjectMaps.emptyMap();
     private static int NEXT_ID = 0;
+    // Set by install() on the server thread; nothing may be read or changed before it is
+    private static boolean loaded = false;
     private static File saveFile;
+    private static File binaryFile;
+    private static StorageMode storageMode = StorageMode.JSON;
+    // Set when a failed migration left the registry empty, so saving would overwrite the only good copy
+    private static boolean savesBlocked = false;
+    private static AsyncRegistryWriter<NpcData> writer;
+    private static RegistryJournal<NpcData> journal;
+    // Change tracking: every change stamps the NPC with the next version
+    private static long VERSION_CLOCK = 0;
+    // Version the registry had when loaded; removals before it are not known
+    private static long loadedVersion = 0;
+    // NPCs changed since they were last written
+    private static final IntSet DIRTY_NPCS = new IntOpenHashSet();
+    // Removed id -> version of the removal (in memory only)
+    private static final Int2LongMap REMOVED_AT = new Int2LongOpenHashMap();
+
+    // Sharded mode only: payloads live in one file per region (32x32 chunks, keyed like ChunkPos.toLong)
+    private static File shardFolder;
+    private static final Long2ObjectMap<IntSet> REGION_MEMBERS = new Long2ObjectOpenHashMap<>();
+    private static final LongSet LOADED_REGIONS = new LongOpenHashSet();
+    // Dirty region -> stamp of its latest change; a finished write only clears the stamp it was queued with
+    private static final Long2LongMap DIRTY_REGIONS = new Long2LongOpenHashMap();
+    private static long regionDirtyClock = 0;
+    // Regions with a write on the I/O thread that has not reported back yet
+    private static final LongSet WRITING_REGIONS = new LongOpenHashSet();
+    // Region payload reads running on the I/O thread
+    private static final Long2ObjectMap<CompletableFuture<List<NpcData>>> REGION_READS = new Long2ObjectOpenHashMap<>();
+    // Outcomes of region writes, posted by the I/O thread and run on the server thread in tickSave
+    private static final Queue<Runnable> IO_RESULTS = new ConcurrentLinkedQueue<>();
+    private static final LongSet FAILED_REGIONS = new LongOpenHashSet();
+    private static final Long2LongMap REGION_LAST_USED = new Long2LongOpenHashMap();
+    private static final long EVICTION_CHECK_INTERVAL_MS = 5000;
+    private static long lastEvictionCheck = 0;
+    // Refreshed once per tick; payload getters stamp it instead of reading the clock
+    static long accessClock = System.currentTimeMillis();
 
     // Register custom serializers for ItemStack and Trade
     private static final Gson GSON = new GsonBuilder()
@@ -35,16 +120,46 @@ public final class NpcRegistry {
     private static boolean needsSave = false;
     private static long lastSaveTime = 0;
     private static final long SAVE_INTERVAL_MS = 30000;
+    // Edits only mark their NPC dirty; one snapshot is taken per window however many edits land in it
+    private static final long SAVE_COALESCE_MS = 250;
+    // When the coalesced save is due, or 0 if none is scheduled
+    private static long saveDueAt = 0;
+
+    // Trade ItemStacks (SNBT + codec) dominate JSON load time, so they are decoded here in parallel
+    private static final ForkJoinPool TRADE_DECODE_POOL =
+            new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
 
     public static class NpcData {
         public int id;
+        // Registry version of the last change to this NPC (see getChangedSince)
+        public long version;
         public String name;
         public double x, y, z;
+        // Home dimension id; null for NPCs saved before dimensions were recorded (overworld)
+        public String dimension;
         public String skin;
         public List<Waypoint> path;
         public DialogueData dialogue;
         public TradeData tradeData;  // REMOVED 'static' keyword!
 
+        // Cached deep copy handed to the async writer; dropped whenever this NPC changes
+        private transient NpcData frozen;
+        // Set on frozen copies only: they never change, so their JSON tree can be reused across saves
+        private transient boolean snapshotCopy;
+        private transient JsonElement encodedJson;
+
+        // Sharded storage: path/dialogue/trades are still on disk (false for every other mode)
+        private transient boolean payloadOnDisk;
+        // Sharded storage: region file that currently holds this NPC's payload
+        private transient long payloadRegion;
+        private transient long lastAccess;
+        // Streaming JSON load: trades still being decoded on TRADE_DECODE_POOL
+        private transient CompletableFuture<TradeData> pendingTrades;
+        // Trades as read from JSON when they failed to decode; written back unchanged so saves never drop them
+        private transient JsonElement undecodedTrades;
+        // Parsed form of dimension
+        private transient RegistryKey<World> homeDimension;
+
         public NpcData(int id, String name, Vec3d position) {
             this.id = id;
             this.name = name;
@@ -58,11 +173,17 @@ public final class NpcRegistry {
         }
 
         public TradeData getTradeData() {
+            usePayload();
+            resolveTrades();
             return tradeData;
         }
 
         public void setTradeData(TradeData tradeData) {
+            usePayload();
+            this.pendingTrades = null;
+            this.undecodedTrades = null;
             this.tradeData = tradeData;
+            markChanged();
         }
 
         public Vec3d getPosition() {
@@ -73,22 +194,103 @@ public final class NpcRegistry {
             this.x = pos.x;
             this.y = pos.y;
             this.z = pos.z;
+            markChanged();
+        }
+
+        /**
+         * @return the dimension this NPC lives in
+         */
+        public RegistryKey<World> getHomeDimension() {
+            RegistryKey<World> home = this.homeDimension;
+            if (home == null) {
+                home = dimension != null ? RegistryKey.of(RegistryKeys.WORLD, Identifier.of(dimension)) : World.OVERWORLD;
+                this.homeDimension = home;
+            }
+            return home;
+        }
+
+        public void setHomeDimension(RegistryKey<World> home) {
+            this.dimension = home.getValue().toString();
+            this.homeDimension = home;
+            markChanged();
         }
 
         public List<Waypoint> getPath() {
+            usePayload();
             return path != null ? path : new ArrayList<>();
         }
 
         public void setPath(List<Waypoint> newPath) {
+            usePayload();
             this.path = newPath != null ? newPath : new ArrayList<>();
+            markChanged();
         }
 
         public DialogueData getDialogue() {
+            usePayload();
             return dialogue;
         }
 
         public void setDialogue(DialogueData dialogue) {
+            usePayload();
             this.dialogue = dialogue;
+            markChanged();
+        }
+
+        /**
+         * Pull the payload in from its region file if needed and mark it as recently used.
+         * Chunk loads read regions ahead of time, so this rarely has to wait for the I/O thread.
+         */
+        private void usePayload() {
+            if (payloadOnDisk) {
+                loadRegion(payloadRegion);
+            }
+            lastAccess = accessClock;
+        }
+
+        /**
+         * Wait for trades still being decoded after a JSON load (usually long done by first use).
+         */
+        private void resolveTrades() {
+            CompletableFuture<TradeData> pending = this.pendingTrades;
+            if (pending != null) {
+                this.tradeData = pending.join();
+                this.pendingTrades = null;
+            }
+        }
+
+        /**
+         * Invalidate the cached save copy. Call after mutating any field in place.
+         */
+        public void markChanged() {
+            this.frozen = null;
+        }
+
+        /**
+         * Deep copy that is safe to serialize off-thread. Cached until the next change,
+         * so repeated saves only copy the NPCs that were actually edited.
+         */
+        public NpcData frozenCopy() {
+            NpcData copy = this.frozen;
+            if (copy == null) {
+                resolveTrades();
+                copy = new NpcData(id, name, new Vec3d(x, y, z));
+                copy.version = version;
+                copy.snapshotCopy = true;
+                copy.dimension = dimension;
+                copy.skin = skin;
+                copy.path = new ArrayList<>(path != null ? path.size() : 0);
+                if (path != null) {
+                    for (Waypoint waypoint : path) {
+                        copy.path.add(new Waypoint(waypoint.x, waypoint.y, waypoint.z, waypoint.waitTicks));
+                    }
+                }
+                copy.dialogue = dialogue != null ? dialogue.copy() : null;
+                copy.tradeData = tradeData != null ? tradeData.copy() : null;
+                copy.undecodedTrades = undecodedTrades;
+                this.frozen = copy;
+            }
+            return copy;
         }
     }
 
@@ -152,6 +354,24 @@ public final class NpcRegistry {
             this.pages = new ArrayList<>();
         }
 
+        /**
+         * Deep copy of all pages and options.
+         */
+        public DialogueData copy() {
+            DialogueData copy = new DialogueData();
+            if (pages == null) return copy;
+            for (DialoguePageData page : pages) {
+                DialoguePageData pageCopy = new DialoguePageData(page.text);
+                if (page.options != null) {
+                    for (DialogueOptionData option : page.options) {
+                        pageCopy.options.add(new DialogueOptionData(option.text, option.action));
+                    }
+                }
+                copy.pages.add(pageCopy);
+            }
+            return copy;
+        }
+
         /**
          * The type Dialogue page data.
          */
@@ -198,11 +418,40 @@ public final class NpcRegistry {
     }
 
     /**
-     * Init.
+     * Registry contents read from disk by {@link #read}, not visible to anything else
+     * until {@link #install} publishes them.
+     */
+    public static final class LoadedState {
+        private File saveFile;
+        private File binaryFile;
+        private File shardFolder;
+        private StorageMode storageMode;
+        private AsyncRegistryWriter<NpcData> writer;
+        private RegistryJournal<NpcData> journal;
+        private boolean savesBlocked;
+        // Nothing usable on disk: install() writes out the (empty) registry
+        private boolean saveOnInstall;
+        private List<NpcData> npcs = new ArrayList<>();
+        private final Long2ObjectMap<IntSet> regionMembers = new Long2ObjectOpenHashMap<>();
+        private final LongSet loadedRegions = new LongOpenHashSet();
+
+        private LoadedState() {
+        }
+
+        public int size() {
+            return npcs.size();
+        }
+    }
+
+    /**
+     * Read (and migrate, if the storage mode changed) the registry on disk. Touches none
+     * of the live registry, so it can run on any thread while the server keeps going;
+     * hand the result to {@link #install} on the server thread.
      *
      * @param serverRoot the server root
      */
-    public static void init(File serverRoot) {
+    public static LoadedState read(File serverRoot) {
+        LoadedState state = new LoadedState();
         File scrubiansFolder = new File(serverRoot, ".scrubians");
         if (!scrubiansFolder.exists()) {
             Scrubians.logger("info","[Scrubians] Creating .scrubians folder at: " + scrubiansFolder.getAbsolutePath());
@@ -215,27 +464,48 @@ public final class NpcRegistry {
             dataFolder.mkdirs();
         }
 
-        saveFile = new File(dataFolder, "scrubians_npcs.json");
+        state.saveFile = new File(dataFolder, "scrubians_npcs.json");
+        state.binaryFile = new File(dataFolder, "scrubians_npcs.bin");
+        state.shardFolder = new File(dataFolder, "npcs");
+        state.storageMode = StorageMode.current();
+
+        if (state.storageMode == StorageMode.SHARDED) {
+            Scrubians.logger("info","[Scrubians] Sharded NPC folder: " + state.shardFolder.getAbsolutePath());
+            state.writer = new AsyncRegistryWriter<>("NPC headers", shardIndexFile(state.shardFolder).toPath(), NpcBinaryFormat::encodeIndex);
+            initSharded(state, dataFolder);
+            return state;
+        }
+
+        if (state.storageMode == StorageMode.BINARY) {
+            Scrubians.logger("info","[Scrubians] Binary file path: " + state.binaryFile.getAbsolutePath());
+            state.writer = new AsyncRegistryWriter<>("NPCs", state.binaryFile.toPath(), NpcBinaryFormat::encodeNpcs);
+            initBinary(state, dataFolder);
+            return state;
+        }
+
+        File saveFile = state.saveFile;
         Scrubians.logger("info","[Scrubians] JSON file path: " + saveFile.getAbsolutePath());
+        state.writer = new AsyncRegistryWriter<>("NPCs", saveFile.toPath(), NpcRegistry::encodeJson);
+
+        if (!saveFile.exists() && state.binaryFile.exists()) {
+            if (!migrateBinaryToJson(state, dataFolder)) return state;
+        } else if (!saveFile.exists() && shardIndexFile(state.shardFolder).exists()) {
+            if (!migrateFromShards(state, saveFile, NpcRegistry::encodeJson)) return state;
+        }
+
+        if (state.storageMode == StorageMode.JOURNAL) {
+            state.journal = new RegistryJournal<>("NPC", new File(dataFolder, "scrubians_npcs.journal").toPath(),
+                    GSON, NpcData.class, npc -> npc.id, NpcRegistry::toJson, NpcRegistry::fromJson);
+            Scrubians.logger("info","[Scrubians] Journaled storage enabled: " + state.journal.getFile());
+        }
 
         if (saveFile.exists()) {
             Scrubians.logger("info","[Scrubians] Loading existing NPCs from JSON...");
-            try (FileReader reader = new FileReader(saveFile)) {
-                Type listType = new TypeToken<List<NpcData>>() {}.getType();
-                List<NpcData> loaded = GSON.fromJson(reader, listType);
-                if (loaded != null) {
-                    NPC_LIST.clear();
-                    NPC_LIST.addAll(loaded);
-                    for (NpcData npc : NPC_LIST) {
-                        if (npc.id >= NEXT_ID) NEXT_ID = npc.id + 1;
-                        // Ensure path is initialized
-                        if (npc.path == null) npc.path = new ArrayList<>();
-                        // Ensure trade data trades list is initialized
-                        if (npc.tradeData != null && npc.tradeData.trades == null) {
-                            npc.tradeData.trades = new ArrayList<>();
-                        }
-                    }
-                    Scrubians.logger("info","[Scrubians] Loaded " + NPC_LIST.size() + " NPCs from JSON");
+            try {
+                List<NpcData> loaded = readJson(saveFile);
+                if (loaded != null || state.journal != null) {
+                    applyLoaded(state, loaded != null ? new ArrayList<>(loaded) : new ArrayList<>());
+                    Scrubians.logger("info","[Scrubians] Loaded " + state.npcs.size() + " NPCs from JSON");
                 }
             } catch (Exception e) {
                 Scrubians.logger("info","[Scrubians] ERROR: Corrupted JSON file detected!");
@@ -249,47 +519,1017 @@ public final class NpcRegistry {
                     Scrubians.logger("error","[Scrubians] Failed to create backup: " + backupError.getMessage());
                 }
 
-                NPC_LIST.clear();
-                NEXT_ID = 0;
-                save();
+                state.npcs = new ArrayList<>();
+                if (state.journal != null) {
+                    // Salvage whatever the journal still has on top of the empty registry
+                    applyLoaded(state, new ArrayList<>());
+                } else {
+                    state.saveOnInstall = true;
+                }
 
                 Scrubians.logger("error","[Scrubians] Original error details:");
                 e.printStackTrace();
             }
+        } else if (state.journal != null) {
+            Scrubians.logger("info","[Scrubians] JSON file doesn't exist, rebuilding from journal...");
+            applyLoaded(state, new ArrayList<>());
         } else {
             Scrubians.logger("info","[Scrubians] JSON file doesn't exist, creating new one...");
+            state.saveOnInstall = true;
+        }
+        return state;
+    }
+
+    /**
+     * Make what {@link #read} returned the registry contents. Server thread only;
+     * nothing may use the registry before this ran (check {@link #isLoaded()}).
+     */
+    public static void install(LoadedState state) {
+        saveFile = state.saveFile;
+        binaryFile = state.binaryFile;
+        shardFolder = state.shardFolder;
+        storageMode = state.storageMode;
+        writer = state.writer;
+        journal = state.journal;
+        savesBlocked = state.savesBlocked;
+
+        DIRTY_NPCS.clear();
+        REMOVED_AT.clear();
+        VERSION_CLOCK = 0;
+        NEXT_ID = 0;
+        REGION_MEMBERS.clear();
+        REGION_MEMBERS.putAll(state.regionMembers);
+        LOADED_REGIONS.clear();
+        LOADED_REGIONS.addAll(state.loadedRegions);
+        DIRTY_REGIONS.clear();
+        regionDirtyClock = 0;
+        WRITING_REGIONS.clear();
+        REGION_READS.clear();
+        IO_RESULTS.clear();
+        FAILED_REGIONS.clear();
+        REGION_LAST_USED.clear();
+        LongIterator regions = LOADED_REGIONS.iterator();
+        while (regions.hasNext()) {
+            REGION_LAST_USED.put(regions.nextLong(), accessClock);
+        }
+
+        publish(List.copyOf(state.npcs));
+        for (NpcData npc : NPC_LIST) {
+            if (npc.id >= NEXT_ID) NEXT_ID = npc.id + 1;
+            if (npc.version > VERSION_CLOCK) VERSION_CLOCK = npc.version;
+        }
+        loadedVersion = VERSION_CLOCK;
+
+        if (state.saveOnInstall) {
             save();
         }
+        loaded = true;
     }
 
-    private static void save() {
-        if (saveFile == null) {
-            Scrubians.logger("error","[Scrubians] Cannot save - saveFile is null!");
+    /**
+     * @return false before {@link #install} first ran, and again once {@link #unload} did
+     */
+    public static boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Mark the registry as not loaded after the server stopped; the next {@link #install} replaces it.
+     */
+    public static void unload() {
+        loaded = false;
+    }
+
+    // Replace the NPC list and its id index together
+    private static void publish(List<NpcData> list) {
+        NPC_INDEX = buildIndex(list);
+        NPC_LIST = list;
+    }
+
+    /**
+     * Build the id index the registry publishes for a list of NPCs (also used by the benchmark).
+     */
+    public static Int2ObjectMap<NpcData> buildIndex(List<NpcData> npcs) {
+        Int2ObjectMap<NpcData> index = new Int2ObjectOpenHashMap<>(npcs.size());
+        for (NpcData npc : npcs) {
+            index.put(npc.id, npc);
+        }
+        return index;
+    }
+
+    /**
+     * Replay the journal (if any) over the loaded base list and make it the state's contents.
+     */
+    private static void applyLoaded(LoadedState state, List<NpcData> loaded) {
+        int replayed = state.journal != null ? state.journal.replay(loaded) : 0;
+
+        for (NpcData npc : loaded) {
+            // Ensure path is initialized
+            if (npc.path == null) npc.path = new ArrayList<>();
+            // Ensure trade data trades list is initialized
+            if (npc.tradeData != null && npc.tradeData.trades == null) {
+                npc.tradeData.trades = new ArrayList<>();
+            }
+        }
+        state.npcs = loaded;
+
+        if (replayed > 0) {
+            Scrubians.logger("info","[Scrubians] Replayed " + replayed + " journal records");
+            // Start the session with a fresh snapshot and an empty journal
+            state.journal.compact(snapshot(loaded), state.saveFile.toPath(), NpcRegistry::encodeJson);
+        }
+    }
+
+    /**
+     * Stream NPC records one at a time from a buffered reader. Cheap fields are decoded
+     * inline; each NPC's trades are handed to {@link #TRADE_DECODE_POOL} and joined on
+     * first use, so the registry is usable before every ItemStack has been parsed.
+     *
+     * @return the NPCs, or null for an empty file
+     */
+    private static List<NpcData> readJson(File file) throws IOException {
+        if (file.length() == 0) return null;
+
+        long start = System.nanoTime();
+        List<NpcData> npcs = new ArrayList<>();
+        List<CompletableFuture<TradeData>> pending = new ArrayList<>();
+
+        try (JsonReader reader = new JsonReader(Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8))) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                JsonObject record = JsonParser.parseReader(reader).getAsJsonObject();
+                JsonElement trades = record.remove("tradeData");
+                NpcData npc = GSON.fromJson(record, NpcData.class);
+
+                if (trades != null && !trades.isJsonNull()) {
+                    int id = npc.id;
+                    npc.pendingTrades = CompletableFuture.supplyAsync(() -> {
+                        TradeData tradeData = GSON.fromJson(trades, TradeData.class);
+                        // Ensure trade data trades list is initialized
+                        if (tradeData != null && tradeData.trades == null) {
+                            tradeData.trades = new ArrayList<>();
+                        }
+                        return tradeData;
+                    }, TRADE_DECODE_POOL).exceptionally(e -> {
+                        Scrubians.logger("error","[Scrubians] Failed to decode trades of NPC #" + id + ", keeping them as they are in "
+                                + file.getName() + ": " + e.getMessage());
+                        // Written before the future completes, so it is visible to whoever joins it
+                        npc.undecodedTrades = trades;
+                        return null;
+                    });
+                    pending.add(npc.pendingTrades);
+                }
+                npcs.add(npc);
+            }
+            reader.endArray();
+        }
+
+        long parsedMs = (System.nanoTime() - start) / 1_000_000;
+        Scrubians.logger("info","[Scrubians] Parsed " + npcs.size() + " NPCs from " + file.getName() + " in " + parsedMs
+                + " ms, decoding trades of " + pending.size() + " in the background");
+        if (!pending.isEmpty()) {
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).whenComplete((ignored, e) ->
+                    Scrubians.logger("info","[Scrubians] Decoded trades of " + pending.size() + " NPCs, total load "
+                            + (System.nanoTime() - start) / 1_000_000 + " ms"));
+        }
+        return npcs;
+    }
+
+    /**
+     * Binary mode startup: load the .bin file, or migrate the JSON file once if there is no .bin yet.
+     */
+    private static void initBinary(LoadedState state, File dataFolder) {
+        File binaryFile = state.binaryFile;
+        File saveFile = state.saveFile;
+        if (binaryFile.exists()) {
+            long start = System.nanoTime();
+            try {
+                applyLoaded(state, new ArrayList<>(NpcBinaryFormat.readNpcs(binaryFile.toPath())));
+                Scrubians.logger("info","[Scrubians] Loaded " + state.npcs.size() + " NPCs from binary in "
+                        + (System.nanoTime() - start) / 1_000_000 + " ms");
+            } catch (Exception e) {
+                Scrubians.logger("error","[Scrubians] ERROR: Corrupted binary NPC file detected!");
+                File backup = new File(dataFolder, "scrubians_npcs_corrupted_" + System.currentTimeMillis() + ".bin");
+                try {
+                    Files.copy(binaryFile.toPath(), backup.toPath());
+                    Scrubians.logger("info","[Scrubians] Backup saved to: " + backup.getName());
+                } catch (IOException backupError) {
+                    Scrubians.logger("error","[Scrubians] Failed to create backup: " + backupError.getMessage());
+                }
+                state.npcs = new ArrayList<>();
+                state.saveOnInstall = true;
+                e.printStackTrace();
+            }
+        } else if (saveFile.exists()) {
+            Scrubians.logger("info","[Scrubians] Migrating NPCs from JSON to binary...");
+            boolean read = false;
+            try {
+                List<NpcData> loaded = readJson(saveFile);
+                applyLoaded(state, loaded != null ? new ArrayList<>(loaded) : new ArrayList<>());
+                read = true;
+                requireDecodedTrades(state.npcs);
+                // Write synchronously so the JSON is only moved aside once the binary copy is on disk
+                AsyncRegistryWriter.writeAtomically(binaryFile.toPath(), NpcBinaryFormat.encodeNpcs(snapshot(state.npcs)));
+                File migrated = new File(dataFolder, saveFile.getName() + ".migrated");
+                Files.move(saveFile.toPath(), migrated.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                Scrubians.logger("info","[Scrubians] Migrated " + state.npcs.size() + " NPCs to binary, old JSON kept as "
+                        + migrated.getName());
+            } catch (Exception e) {
+                Scrubians.logger("error","[Scrubians] Failed to migrate NPCs to binary, keeping the JSON file:");
+                e.printStackTrace();
+                discardMigrationTarget(binaryFile);
+                fallBackAfterFailedMigration(state, saveFile, read);
+            }
+        } else if (shardIndexFile(state.shardFolder).exists()) {
+            if (migrateFromShards(state, binaryFile, NpcBinaryFormat::encodeNpcs)) {
+                initBinary(state, dataFolder);
+            }
+        } else {
+            Scrubians.logger("info","[Scrubians] Binary file doesn't exist, creating new one...");
+            state.saveOnInstall = true;
+        }
+    }
+
+    /**
+     * Switching back from binary mode: turn the .bin file into JSON once so no NPCs are lost.
+     *
+     * @return false if it failed and the state now uses the .bin file for this session
+     */
+    private static boolean migrateBinaryToJson(LoadedState state, File dataFolder) {
+        Scrubians.logger("info","[Scrubians] Migrating NPCs from binary back to JSON...");
+        boolean read = false;
+        try {
+            List<NpcData> loaded = NpcBinaryFormat.readNpcs(state.binaryFile.toPath());
+            applyLoaded(state, new ArrayList<>(loaded));
+            read = true;
+            AsyncRegistryWriter.writeAtomically(state.saveFile.toPath(), encodeJson(loaded));
+            File migrated = new File(dataFolder, state.binaryFile.getName() + ".migrated");
+            Files.move(state.binaryFile.toPath(), migrated.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            Scrubians.logger("info","[Scrubians] Migrated " + loaded.size() + " NPCs to JSON");
+            return true;
+        } catch (Exception e) {
+            Scrubians.logger("error","[Scrubians] Failed to migrate binary NPC file to JSON:");
+            e.printStackTrace();
+            discardMigrationTarget(state.saveFile);
+            fallBackAfterFailedMigration(state, state.binaryFile, read);
+            return false;
+        }
+    }
+
+    // ---- Sharded storage ----
+
+    private static File shardIndexFile() {
+        return shardIndexFile(shardFolder);
+    }
+
+    private static File shardIndexFile(File folder) {
+        return new File(folder, "index.bin");
+    }
+
+    private static File regionFile(long region) {
+        return regionFile(shardFolder, region);
+    }
+
+    private static File regionFile(File folder, long region) {
+        return new File(folder, "r." + ChunkPos.getPackedX(region) + "." + ChunkPos.getPackedZ(region) + ".bin");
+    }
+
+    private static long regionOf(NpcData npc) {
+        return ChunkPos.toLong(MathHelper.floor(npc.x) >> 9, MathHelper.floor(npc.z) >> 9);
+    }
+
+    /**
+     * Sharded mode startup: load only the header index. Payloads are read per region
+     * when a chunk in the region loads or an NPC's path/dialogue/trades are first used.
+     */
+    private static void initSharded(LoadedState state, File dataFolder) {
+        File shardFolder = state.shardFolder;
+        File indexFile = shardIndexFile(shardFolder);
+        if (indexFile.exists()) {
+            long start = System.nanoTime();
+            try {
+                applyLoaded(state, new ArrayList<>(NpcBinaryFormat.readIndex(indexFile.toPath())));
+                for (NpcData npc : state.npcs) {
+                    npc.payloadOnDisk = true;
+                    npc.payloadRegion = regionOf(npc);
+                    state.regionMembers.computeIfAbsent(npc.payloadRegion, r -> new IntOpenHashSet()).add(npc.id);
+                }
+                Scrubians.logger("info","[Scrubians] Loaded " + state.npcs.size() + " NPC headers across "
+                        + state.regionMembers.size() + " regions in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+            } catch (Exception e) {
+                Scrubians.logger("error","[Scrubians] ERROR: Corrupted NPC index detected!");
+                File backup = new File(shardFolder, "index_corrupted_" + System.currentTimeMillis() + ".bin");
+                try {
+                    Files.copy(indexFile.toPath(), backup.toPath());
+                    Scrubians.logger("info","[Scrubians] Backup saved to: " + backup.getName());
+                } catch (IOException backupError) {
+                    Scrubians.logger("error","[Scrubians] Failed to create backup: " + backupError.getMessage());
+                }
+                state.npcs = new ArrayList<>();
+                state.regionMembers.clear();
+                e.printStackTrace();
+            }
             return;
         }
 
+        File source = state.binaryFile.exists() ? state.binaryFile : state.saveFile.exists() ? state.saveFile : null;
+        if (source == null) {
+            Scrubians.logger("info","[Scrubians] NPC index doesn't exist, creating new one...");
+            shardFolder.mkdirs();
+            state.saveOnInstall = true;
+            return;
+        }
+
+        Scrubians.logger("info","[Scrubians] Migrating NPCs from " + source.getName() + " to region shards...");
+        boolean read = false;
         try {
-            String json = GSON.toJson(NPC_LIST);
-            java.nio.file.Files.write(saveFile.toPath(), json.getBytes(java.nio.charset.StandardCharsets.UTF_8));
-            Scrubians.logger("info","[Scrubians] Saved " + NPC_LIST.size() + " NPCs to: " + saveFile.getAbsolutePath());
+            List<NpcData> loaded = source == state.binaryFile ? NpcBinaryFormat.readNpcs(source.toPath()) : readJson(source);
+            applyLoaded(state, loaded != null ? new ArrayList<>(loaded) : new ArrayList<>());
+            read = true;
+            requireDecodedTrades(state.npcs);
+
+            // Write every shard synchronously so the source is only moved aside once all of it is on disk
+            Long2ObjectMap<List<NpcData>> byRegion = new Long2ObjectOpenHashMap<>();
+            for (NpcData npc : state.npcs) {
+                npc.payloadRegion = regionOf(npc);
+                byRegion.computeIfAbsent(npc.payloadRegion, r -> new ArrayList<>()).add(npc.frozenCopy());
+                state.regionMembers.computeIfAbsent(npc.payloadRegion, r -> new IntOpenHashSet()).add(npc.id);
+            }
+            Files.createDirectories(shardFolder.toPath());
+            for (Long2ObjectMap.Entry<List<NpcData>> entry : byRegion.long2ObjectEntrySet()) {
+                AsyncRegistryWriter.writeAtomically(regionFile(shardFolder, entry.getLongKey()).toPath(), NpcBinaryFormat.encodeRegion(entry.getValue()));
+                state.loadedRegions.add(entry.getLongKey());
+            }
+            AsyncRegistryWriter.writeAtomically(indexFile.toPath(), NpcBinaryFormat.encodeIndex(state.npcs));
+
+            File migrated = new File(dataFolder, source.getName() + ".migrated");
+            Files.move(source.toPath(), migrated.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            Scrubians.logger("info","[Scrubians] Migrated " + state.npcs.size() + " NPCs into " + byRegion.size()
+                    + " region shards, old file kept as " + migrated.getName());
+        } catch (Exception e) {
+            Scrubians.logger("error","[Scrubians] Failed to migrate NPCs to region shards, keeping " + source.getName() + ":");
+            e.printStackTrace();
+            discardMigrationTarget(indexFile);
+            fallBackAfterFailedMigration(state, source, read);
+        }
+    }
+
+    /**
+     * A migration failed, so nothing exists in the new format yet. Keep saving in the
+     * source file's format this session; saving in the new one would create a file that
+     * wins over the source on the next start. If the source could not even be read,
+     * the registry is empty and saving is blocked altogether so the source survives.
+     */
+    private static void fallBackAfterFailedMigration(LoadedState state, File source, boolean sourceRead) {
+        if (source == state.shardFolder) {
+            // The shards are untouched, so carry on reading them as if nothing happened
+            state.storageMode = StorageMode.SHARDED;
+            state.writer = new AsyncRegistryWriter<>("NPC headers", shardIndexFile(source).toPath(), NpcBinaryFormat::encodeIndex);
+            state.npcs = new ArrayList<>();
+            Scrubians.logger("error","[Scrubians] Using sharded storage for this session");
+            initSharded(state, source.getParentFile());
+            return;
+        }
+        if (source == state.binaryFile) {
+            state.storageMode = StorageMode.BINARY;
+            state.writer = new AsyncRegistryWriter<>("NPCs", state.binaryFile.toPath(), NpcBinaryFormat::encodeNpcs);
+        } else {
+            state.storageMode = StorageMode.JSON;
+            state.writer = new AsyncRegistryWriter<>("NPCs", state.saveFile.toPath(), NpcRegistry::encodeJson);
+        }
+        // Half-built shard bookkeeping means nothing outside sharded mode
+        state.regionMembers.clear();
+        state.loadedRegions.clear();
+        state.savesBlocked = !sourceRead;
+        Scrubians.logger("error","[Scrubians] Using " + state.storageMode.name().toLowerCase() + " storage for this session"
+                + (state.savesBlocked ? "; " + source.getName() + " could not be read, so NPC changes will NOT be saved until it is fixed" : ""));
+    }
+
+    /**
+     * The new-format file must not outlive a failed migration, or it would win over the source on the next start.
+     */
+    private static void discardMigrationTarget(File target) {
+        try {
+            Files.deleteIfExists(target.toPath());
         } catch (IOException e) {
-            Scrubians.logger("error","[Scrubians] Error saving JSON file:");
+            Scrubians.logger("error","[Scrubians] Failed to remove " + target.getName() + " after the failed migration, delete it by hand: "
+                    + e.getMessage());
+        }
+    }
+
+    /**
+     * Switching away from sharded mode: rebuild the full registry from the shards into the new main file.
+     *
+     * @return false if it failed and the state now uses the shards for this session
+     */
+    private static boolean migrateFromShards(LoadedState state, File target, Function<List<NpcData>, byte[]> encoder) {
+        File shardFolder = state.shardFolder;
+        Scrubians.logger("info","[Scrubians] Migrating NPCs from region shards to " + target.getName() + "...");
+        try {
+            List<NpcData> npcs = NpcBinaryFormat.readIndex(shardIndexFile(shardFolder).toPath());
+            Int2ObjectMap<NpcData> byId = new Int2ObjectOpenHashMap<>(npcs.size());
+            for (NpcData npc : npcs) {
+                byId.put(npc.id, npc);
+            }
+            File[] regions = shardFolder.listFiles((dir, name) -> name.startsWith("r.") && name.endsWith(".bin"));
+            if (regions != null) {
+                for (File region : regions) {
+                    for (NpcData payload : NpcBinaryFormat.readRegion(region.toPath())) {
+                        NpcData npc = byId.get(payload.id);
+                        if (npc != null) {
+                            npc.path = payload.path;
+                            npc.dialogue = payload.dialogue;
+                            npc.tradeData = payload.tradeData;
+                        }
+                    }
+                }
+            }
+            AsyncRegistryWriter.writeAtomically(target.toPath(), encoder.apply(npcs));
+            File migrated = new File(shardFolder.getParentFile(), shardFolder.getName() + ".migrated");
+            Files.move(shardFolder.toPath(), migrated.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            Scrubians.logger("info","[Scrubians] Migrated " + npcs.size() + " NPCs to " + target.getName());
+            return true;
+        } catch (Exception e) {
+            Scrubians.logger("error","[Scrubians] Failed to migrate NPCs from region shards:");
             e.printStackTrace();
+            discardMigrationTarget(target);
+            fallBackAfterFailedMigration(state, shardFolder, true);
+            return false;
         }
     }
 
+    /**
+     * Start reading a region's payloads on the I/O thread. Being queued there, the read
+     * sees every region write queued before it. No-op if loaded or already being read.
+     */
+    private static void requestRegion(long region) {
+        if (LOADED_REGIONS.contains(region) || FAILED_REGIONS.contains(region) || REGION_READS.containsKey(region)) return;
+        File file = regionFile(region);
+        REGION_READS.put(region, CompletableFuture.supplyAsync(() -> {
+            try {
+                return file.exists() ? NpcBinaryFormat.readRegion(file.toPath()) : List.<NpcData>of();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, AsyncRegistryWriter::runOnIoThread));
+    }
+
+    /**
+     * Read the payloads of every NPC stored in a region, waiting for the I/O thread. No-op if already loaded.
+     */
+    private static void loadRegion(long region) {
+        requestRegion(region);
+        applyRegion(region);
+    }
+
+    /**
+     * Hand the payloads of a finished (or, if need be, awaited) region read to its NPCs.
+     */
+    private static void applyRegion(long region) {
+        CompletableFuture<List<NpcData>> read = REGION_READS.remove(region);
+        if (read == null) return;
+
+        List<NpcData> payloads;
+        try {
+            payloads = read.join();
+        } catch (CompletionException e) {
+            // Never rewrite a region we could not read - its NPCs keep empty payloads until restart
+            FAILED_REGIONS.add(region);
+            Scrubians.logger("error","[Scrubians] Failed to read NPC region " + regionFile(region).getName() + ": "
+                    + e.getCause().getMessage());
+            return;
+        }
+        for (NpcData payload : payloads) {
+            NpcData npc = NPC_INDEX.get(payload.id);
+            if (npc != null && npc.payloadOnDisk && npc.payloadRegion == region) {
+                npc.path = payload.path;
+                npc.dialogue = payload.dialogue;
+                npc.tradeData = payload.tradeData;
+                npc.payloadOnDisk = false;
+                npc.frozen = null;
+            }
+        }
+
+        // Members missing from the file (e.g. crash between index and region write) get empty payloads
+        IntSet members = REGION_MEMBERS.get(region);
+        if (members != null) {
+            IntIterator it = members.iterator();
+            while (it.hasNext()) {
+                NpcData npc = NPC_INDEX.get(it.nextInt());
+                if (npc != null && npc.payloadOnDisk) {
+                    npc.path = new ArrayList<>();
+                    npc.payloadOnDisk = false;
+                    npc.frozen = null;
+                }
+            }
+        }
+        LOADED_REGIONS.add(region);
+        REGION_LAST_USED.put(region, accessClock);
+        if (DIRTY_REGIONS.containsKey(region)) {
+            // A save skipped it while it was on disk
+            scheduleSave();
+        }
+    }
+
+    /**
+     * Apply finished region reads and the outcomes of region writes (server thread).
+     */
+    private static void applyIoResults() {
+        Runnable result;
+        while ((result = IO_RESULTS.poll()) != null) {
+            result.run();
+        }
+        if (!REGION_READS.isEmpty()) {
+            for (long region : REGION_READS.keySet().toLongArray()) {
+                if (REGION_READS.get(region).isDone()) {
+                    applyRegion(region);
+                }
+            }
+        }
+    }
+
+    private static void markRegionDirty(long region) {
+        DIRTY_REGIONS.put(region, ++regionDirtyClock);
+    }
+
+    private static void finishRegionWrite(long region, long stamp, boolean written) {
+        WRITING_REGIONS.remove(region);
+        if (written && DIRTY_REGIONS.get(region) == stamp) {
+            DIRTY_REGIONS.remove(region);
+        }
+        if (DIRTY_REGIONS.containsKey(region)) {
+            // The write failed or the region changed meanwhile; it stays in memory and is written with the next save
+            needsSave = true;
+        }
+    }
+
+    /**
+     * Preload payloads for the region of a chunk that just loaded (sharded mode only).
+     */
+    public static void onChunkLoad(ChunkPos pos) {
+        if (!loaded || storageMode != StorageMode.SHARDED) return;
+        long region = ChunkPos.toLong(pos.x >> 5, pos.z >> 5);
+        if (!REGION_MEMBERS.containsKey(region)) return;
+        // Read in the background; tickSave applies it once it is in
+        requestRegion(region);
+        REGION_LAST_USED.put(region, accessClock);
+    }
+
+    /**
+     * Drop payloads of regions nobody has touched for shardIdleSeconds. Dirty regions stay until saved.
+     */
+    private static void evictIdleRegions() {
+        long idleMs = ScrubiansConfig.shardIdleSeconds * 1000L;
+        int evicted = 0;
+        LongIterator regions = LOADED_REGIONS.iterator();
+        while (regions.hasNext()) {
+            long region = regions.nextLong();
+            if (DIRTY_REGIONS.containsKey(region) || WRITING_REGIONS.contains(region)) continue;
+
+            long lastUsed = REGION_LAST_USED.get(region);
+            IntSet members = REGION_MEMBERS.get(region);
+            if (members != null) {
+                IntIterator it = members.iterator();
+                while (it.hasNext()) {
+                    NpcData npc = NPC_INDEX.get(it.nextInt());
+                    if (npc != null && npc.lastAccess > lastUsed) lastUsed = npc.lastAccess;
+                }
+            }
+            if (accessClock - lastUsed < idleMs) continue;
+
+            if (members != null) {
+                IntIterator it = members.iterator();
+                while (it.hasNext()) {
+                    NpcData npc = NPC_INDEX.get(it.nextInt());
+                    if (npc == null) continue;
+                    npc.path = null;
+                    npc.dialogue = null;
+                    npc.tradeData = null;
+                    npc.payloadOnDisk = true;
+                    npc.frozen = null;
+                }
+            }
+            regions.remove();
+            REGION_LAST_USED.remove(region);
+            evicted++;
+        }
+        if (evicted > 0) {
+            Scrubians.logger("info","[Scrubians] Evicted NPC payloads of " + evicted + " idle regions ("
+                    + LOADED_REGIONS.size() + " still loaded)");
+        }
+    }
+
+    private static void moveToRegion(NpcData npc, long region) {
+        IntSet old = REGION_MEMBERS.get(npc.payloadRegion);
+        if (old != null) {
+            old.remove(npc.id);
+            if (old.isEmpty()) REGION_MEMBERS.remove(npc.payloadRegion);
+        }
+        npc.payloadRegion = region;
+        REGION_MEMBERS.computeIfAbsent(region, r -> new IntOpenHashSet()).add(npc.id);
+    }
+
+    /**
+     * Rewrite the dirty region files, then hand the header index to the background writer.
+     */
+    private static void saveSharded() {
+        // Region crossings were marked dirty by markDirty, so only dirty regions are looked at
+        if (!DIRTY_REGIONS.isEmpty()) {
+            Long2ObjectMap<List<NpcData>> byRegion = new Long2ObjectOpenHashMap<>();
+            LongIterator dirty = DIRTY_REGIONS.keySet().iterator();
+            while (dirty.hasNext()) {
+                long region = dirty.nextLong();
+                // Still being written: it stays dirty and goes out with the save after that write reports back
+                if (WRITING_REGIONS.contains(region) || FAILED_REGIONS.contains(region)) continue;
+                // A region file is rewritten whole, so all of its payloads must be in memory first.
+                // Read it in the background rather than blocking the tick; it stays dirty and
+                // goes out with the save scheduled once the read is applied.
+                if (!LOADED_REGIONS.contains(region)) {
+                    requestRegion(region);
+                    continue;
+                }
+                byRegion.put(region, new ArrayList<>());
+            }
+
+            // Payloads of the regions being written, collected first as moving an NPC changes the member sets
+            IntList ids = new IntArrayList();
+            for (long region : byRegion.keySet()) {
+                IntSet members = REGION_MEMBERS.get(region);
+                if (members != null) ids.addAll(members);
+            }
+            IntIterator it = ids.iterator();
+            while (it.hasNext()) {
+                NpcData npc = NPC_INDEX.get(it.nextInt());
+                if (npc == null || npc.payloadOnDisk) continue;
+                long region = regionOf(npc);
+                List<NpcData> bucket = byRegion.get(region);
+                if (bucket == null) {
+                    // Its new region is not being written this time; the payload stays where it is until it is
+                    byRegion.get(npc.payloadRegion).add(npc.frozenCopy());
+                    continue;
+                }
+                bucket.add(npc.frozenCopy());
+                moveToRegion(npc, region);
+            }
+
+            for (Long2ObjectMap.Entry<List<NpcData>> entry : byRegion.long2ObjectEntrySet()) {
+                long region = entry.getLongKey();
+                long stamp = DIRTY_REGIONS.get(region);
+                File file = regionFile(region);
+                List<NpcData> payloads = entry.getValue();
+                WRITING_REGIONS.add(region);
+                AsyncRegistryWriter.runOnIoThread(() -> {
+                    boolean written = false;
+                    try {
+                        if (payloads.isEmpty()) {
+                            Files.deleteIfExists(file.toPath());
+                        } else {
+                            AsyncRegistryWriter.writeAtomically(file.toPath(), NpcBinaryFormat.encodeRegion(payloads));
+                        }
+                        written = true;
+                    } catch (IOException e) {
+                        Scrubians.logger("error","[Scrubians] Failed to write NPC region " + file.getName() + ":");
+                        e.printStackTrace();
+                    }
+                    boolean succeeded = written;
+                    // The dirty bit is only dropped on the server thread, once the file is really on disk
+                    IO_RESULTS.add(() -> finishRegionWrite(region, stamp, succeeded));
+                });
+            }
+        }
+
+        writer.submit(snapshot());
+    }
+
+    /**
+     * Make sure every payload is in memory (sharded mode), e.g. before a full export.
+     */
+    private static void loadAllRegions() {
+        if (storageMode != StorageMode.SHARDED) return;
+        LongIterator regions = new LongOpenHashSet(REGION_MEMBERS.keySet()).iterator();
+        while (regions.hasNext()) {
+            loadRegion(regions.nextLong());
+        }
+    }
+
+    /**
+     * @return number of regions whose payloads are in memory, and the total (sharded mode)
+     */
+    public static int getLoadedRegionCount() {
+        return LOADED_REGIONS.size();
+    }
+
+    public static int getRegionCount() {
+        return REGION_MEMBERS.size();
+    }
+
+    /**
+     * Write a pretty-printed JSON copy of the registry to .scrubians/export for reading or hand editing.
+     * The file is written on the I/O thread.
+     *
+     * @return the export file
+     */
+    public static File exportJson() {
+        File exportFile = new File(new File(saveFile.getParentFile().getParentFile(), "export"), saveFile.getName());
+        loadAllRegions();
+        List<NpcData> snapshot = snapshot();
+        AsyncRegistryWriter.runOnIoThread(() -> {
+            try {
+                Files.createDirectories(exportFile.toPath().getParent());
+                AsyncRegistryWriter.writeAtomically(exportFile.toPath(), encodeJson(snapshot));
+                Scrubians.logger("info","[Scrubians] Exported " + snapshot.size() + " NPCs to: " + exportFile.getAbsolutePath());
+            } catch (IOException e) {
+                Scrubians.logger("error","[Scrubians] Failed to export NPCs: " + e.getMessage());
+            }
+        });
+        return exportFile;
+    }
+
+    public static StorageMode getStorageMode() {
+        return storageMode;
+    }
+
+    /**
+     * Encode NPCs exactly as they are written to scrubians_npcs.json.
+     */
+    public static byte[] encodeJson(List<NpcData> snapshot) {
+        // Only NPCs changed since the last save build a new tree; the rest reuse their cached one
+        JsonArray array = new JsonArray(snapshot.size());
+        for (NpcData npc : snapshot) {
+            JsonElement json = npc.encodedJson;
+            if (json == null) {
+                json = toJson(npc);
+                if (npc.snapshotCopy) npc.encodedJson = json;
+            }
+            array.add(json);
+        }
+        return GSON.toJson(array).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * One NPC's JSON record, with trades that failed to decode put back as they were read.
+     */
+    private static JsonElement toJson(NpcData npc) {
+        JsonElement json = GSON.toJsonTree(npc, NpcData.class);
+        if (npc.undecodedTrades != null) {
+            json.getAsJsonObject().add("tradeData", npc.undecodedTrades);
+        }
+        return json;
+    }
+
+    /**
+     * Read a record written by {@link #toJson}; trades that fail to decode are kept as they are.
+     */
+    private static NpcData fromJson(JsonElement json) {
+        JsonObject record = json.getAsJsonObject().deepCopy();
+        JsonElement trades = record.remove("tradeData");
+        NpcData npc = GSON.fromJson(record, NpcData.class);
+        if (npc != null && trades != null && !trades.isJsonNull()) {
+            try {
+                npc.tradeData = GSON.fromJson(trades, TradeData.class);
+                if (npc.tradeData != null && npc.tradeData.trades == null) {
+                    npc.tradeData.trades = new ArrayList<>();
+                }
+            } catch (Exception e) {
+                Scrubians.logger("error","[Scrubians] Failed to decode trades of NPC #" + npc.id + ", keeping them as they are: "
+                        + e.getMessage());
+                npc.undecodedTrades = trades;
+            }
+        }
+        return npc;
+    }
+
+    /**
+     * The binary formats cannot hold trades that failed to decode, so a migration out of JSON must stop.
+     */
+    private static void requireDecodedTrades(List<NpcData> npcs) throws IOException {
+        for (NpcData npc : npcs) {
+            npc.resolveTrades();
+            if (npc.undecodedTrades != null) {
+                throw new IOException("Trades of NPC #" + npc.id + " could not be decoded; fix them in the JSON file first");
+            }
+        }
+    }
+
+    /**
+     * Self-check: an NPC whose trade item cannot be decoded must come out of a JSON
+     * load and save, and out of a journal record, exactly as it went in. Works on a
+     * temp file, never on the registry.
+     *
+     * @return a line per path that changed the record; empty if every path kept it
+     */
+    public static List<String> checkUndecodableTradeRoundTrip() throws IOException {
+        JsonObject item = new JsonObject();
+        item.addProperty("id", "scrubians:no_such_item");
+        item.addProperty("count", 1);
+        JsonObject trade = new JsonObject();
+        trade.add("result", item);
+        trade.add("firstCost", item.deepCopy());
+        trade.add("secondCost", JsonNull.INSTANCE);
+        trade.addProperty("maxUses", 1);
+        trade.addProperty("uses", 0);
+        trade.addProperty("experience", 0);
+        JsonArray trades = new JsonArray();
+        trades.add(trade);
+        JsonObject tradeData = new JsonObject();
+        tradeData.add("trades", trades);
+
+        JsonObject record = GSON.toJsonTree(new NpcData(0, "Round trip", Vec3d.ZERO), NpcData.class).getAsJsonObject();
+        record.add("tradeData", tradeData);
+
+        List<String> failures = new ArrayList<>();
+        JsonElement journaled = toJson(fromJson(record));
+        if (!journaled.equals(record)) {
+            failures.add("journal record changed: " + journaled);
+        }
+
+        File file = File.createTempFile("scrubians_roundtrip", ".json");
+        try {
+            JsonArray array = new JsonArray();
+            array.add(record);
+            Files.writeString(file.toPath(), GSON.toJson(array), StandardCharsets.UTF_8);
+            List<NpcData> loaded = readJson(file);
+            loaded.get(0).resolveTrades();
+            JsonElement saved = JsonParser.parseString(new String(encodeJson(loaded), StandardCharsets.UTF_8)).getAsJsonArray().get(0);
+            if (!saved.equals(record)) {
+                failures.add("JSON load and save changed the record: " + saved);
+            }
+        } finally {
+            Files.deleteIfExists(file.toPath());
+        }
+        return failures;
+    }
+
+    /**
+     * Decode the contents of a scrubians_npcs.json file.
+     */
+    public static List<NpcData> decodeJson(byte[] json) {
+        Type listType = new TypeToken<List<NpcData>>() {}.getType();
+        return GSON.fromJson(new String(json, StandardCharsets.UTF_8), listType);
+    }
+
+    private static List<NpcData> snapshot() {
+        return snapshot(NPC_LIST);
+    }
+
+    private static List<NpcData> snapshot(List<NpcData> npcs) {
+        List<NpcData> snapshot = new ArrayList<>(npcs.size());
+        for (NpcData npc : npcs) {
+            snapshot.add(npc.frozenCopy());
+        }
+        return Collections.unmodifiableList(snapshot);
+    }
+
+    /**
+     * Stamp an NPC with the next version and queue it for the next save.
+     */
+    private static void markDirty(NpcData npc) {
+        npc.version = ++VERSION_CLOCK;
+        DIRTY_NPCS.add(npc.id);
+        needsSave = true;
+        if (storageMode == StorageMode.SHARDED) {
+            // Payloads follow their NPC: crossing a region border rewrites both region files
+            long region = regionOf(npc);
+            if (region != npc.payloadRegion) {
+                markRegionDirty(region);
+                markRegionDirty(npc.payloadRegion);
+            }
+        }
+    }
+
+    /**
+     * Save within {@link #SAVE_COALESCE_MS}; the snapshot is taken by {@link #tickSave} then.
+     */
+    private static void scheduleSave() {
+        needsSave = true;
+        if (saveDueAt == 0) {
+            saveDueAt = System.currentTimeMillis() + SAVE_COALESCE_MS;
+        }
+    }
+
+    /**
+     * Persist one changed NPC: a single journal record in journal mode, otherwise
+     * it is marked dirty and goes out with the next coalesced save.
+     */
+    private static void persist(NpcData npc) {
+        markDirty(npc);
+        if (journal == null) {
+            if (storageMode == StorageMode.SHARDED) {
+                markRegionDirty(npc.payloadRegion);
+            }
+            scheduleSave();
+            return;
+        }
+        DIRTY_NPCS.remove(npc.id);
+        journal.appendPut(npc.frozenCopy());
+        compactIfNeeded();
+    }
+
+    private static void persistRemoval(int id) {
+        REMOVED_AT.put(id, ++VERSION_CLOCK);
+        DIRTY_NPCS.remove(id);
+        if (journal == null) {
+            scheduleSave();
+            return;
+        }
+        journal.appendRemove(id);
+        compactIfNeeded();
+    }
+
+    /**
+     * Journal every NPC changed since its last journal record.
+     */
+    private static void journalDirty() {
+        IntIterator it = DIRTY_NPCS.iterator();
+        while (it.hasNext()) {
+            NpcData npc = NPC_INDEX.get(it.nextInt());
+            if (npc != null) {
+                journal.appendPut(npc.frozenCopy());
+            }
+        }
+        DIRTY_NPCS.clear();
+        compactIfNeeded();
+    }
+
+    private static void compactIfNeeded() {
+        if (journal.getRecordCount() >= ScrubiansConfig.journalCompactionThreshold) {
+            journal.compact(snapshot(), saveFile.toPath(), NpcRegistry::encodeJson);
+        }
+    }
+
+    /**
+     * Hand a snapshot to the background writer. Only NPCs changed since the last
+     * save are copied, but JSON and binary modes still rewrite the whole file;
+     * only journal and sharded modes write just the changed NPCs.
+     */
+    private static void save() {
+        if (writer == null) {
+            Scrubians.logger("error","[Scrubians] Cannot save - saveFile is null!");
+            return;
+        }
+        if (savesBlocked) {
+            Scrubians.logger("error","[Scrubians] Not saving NPCs - the registry failed to load (see the migration error above)");
+            DIRTY_NPCS.clear();
+            return;
+        }
+        if (storageMode == StorageMode.SHARDED) {
+            saveSharded();
+        } else {
+            writer.submit(snapshot());
+        }
+        DIRTY_NPCS.clear();
+    }
+
+    /**
+     * Save pending changes and block until they are on disk (for shutdown).
+     */
+    public static void flush() {
+        if (journal != null) {
+            journalDirty();
+            journal.compact(snapshot(), saveFile.toPath(), NpcRegistry::encodeJson);
+        } else {
+            forceSave();
+            if (storageMode == StorageMode.SHARDED && writer != null) {
+                // Regions still being written were skipped above; wait for them, then write what is left
+                writer.flush();
+                applyIoResults();
+                forceSave();
+            }
+        }
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Gets the background writer, or null before {@link #install}.
+     */
+    public static AsyncRegistryWriter<NpcData> getWriter() {
+        return writer;
+    }
+
     /**
      * Register npc int.
      *
-     * @param name     the name
-     * @param position the position
+     * @param name      the name
+     * @param position  the position
+     * @param dimension the home dimension
      * @return the int
      */
-    public static int registerNpc(String name, Vec3d position) {
+    public static int registerNpc(String name, Vec3d position, RegistryKey<World> dimension) {
         int id = NEXT_ID++;
         NpcData npc = new NpcData(id, name, position);
-        NPC_LIST.add(npc);
-        forceSave();
+        npc.setHomeDimension(dimension);
+        List<NpcData> grown = new ArrayList<>(NPC_LIST.size() + 1);
+        grown.addAll(NPC_LIST);
+        grown.add(npc);
+        publish(Collections.unmodifiableList(grown));
+        if (storageMode == StorageMode.SHARDED) {
+            npc.payloadRegion = regionOf(npc);
+            REGION_MEMBERS.computeIfAbsent(npc.payloadRegion, r -> new IntOpenHashSet()).add(id);
+        }
+        persist(npc);
+        fire(id, Change.ADDED);
         return id;
     }
 
@@ -299,8 +1539,19 @@ public final class NpcRegistry {
      * @param id the id
      */
     public static void removeNpcById(int id) {
-        NPC_LIST.removeIf(npc -> npc.id == id);
-        forceSave();
+        NpcData removed = NPC_INDEX.get(id);
+        if (removed != null) {
+            List<NpcData> shrunk = new ArrayList<>(NPC_LIST);
+            shrunk.remove(removed);
+            publish(Collections.unmodifiableList(shrunk));
+            if (storageMode == StorageMode.SHARDED) {
+                IntSet members = REGION_MEMBERS.get(removed.payloadRegion);
+                if (members != null) members.remove(id);
+                markRegionDirty(removed.payloadRegion);
+            }
+        }
+        persistRemoval(id);
+        if (removed != null) fire(id, Change.REMOVED);
     }
 
     /**
@@ -310,13 +1561,12 @@ public final class NpcRegistry {
      * @param position the position
      */
     public static void changePosition(int id, Vec3d position) {
-        for (NpcData npc : NPC_LIST) {
-            if (npc.id == id) {
-                npc.setPosition(position);
-                needsSave = true; // Mark that we need to save
-                return;
-            }
-        }
+        NpcData npc = NPC_INDEX.get(id);
+        if (npc == null) return;
+        // Standing mannequins report the same position every time - nothing to save
+        if (npc.x == position.x && npc.y == position.y && npc.z == position.z) return;
+        npc.setPosition(position);
+        markDirty(npc);
     }
 
     /**
@@ -324,10 +1574,26 @@ public final class NpcRegistry {
      * Only saves if data has changed and enough time has passed
      */
     public static void tickSave() {
+        accessClock = System.currentTimeMillis();
+        if (storageMode == StorageMode.SHARDED) {
+            applyIoResults();
+        }
+        if (storageMode == StorageMode.SHARDED && accessClock - lastEvictionCheck >= EVICTION_CHECK_INTERVAL_MS) {
+            lastEvictionCheck = accessClock;
+            evictIdleRegions();
+        }
+        if (saveDueAt != 0 && accessClock >= saveDueAt) {
+            forceSave();
+            return;
+        }
         if (needsSave) {
             long currentTime = System.currentTimeMillis();
             if (currentTime - lastSaveTime >= SAVE_INTERVAL_MS) {
-                save();
+                if (journal != null) {
+                    journalDirty();
+                } else {
+                    save();
+                }
                 needsSave = false;
                 lastSaveTime = currentTime;
             }
@@ -335,10 +1601,18 @@ public final class NpcRegistry {
     }
 
     /**
-     * Force save immediately (for shutdown or important changes)
+     * Save pending changes immediately (for shutdown or important changes).
+     * Does nothing if no NPC changed since the last save.
      */
     public static void forceSave() {
-        if (needsSave || !NPC_LIST.isEmpty()) {
+        saveDueAt = 0;
+        if (journal != null) {
+            journalDirty();
+            needsSave = false;
+            lastSaveTime = System.currentTimeMillis();
+            return;
+        }
+        if (needsSave) {
             save();
             needsSave = false;
             lastSaveTime = System.currentTimeMillis();
@@ -352,13 +1626,10 @@ public final class NpcRegistry {
      * @param position the position
      */
     public static void changePositionAndSave(int id, Vec3d position) {
-        for (NpcData npc : NPC_LIST) {
-            if (npc.id == id) {
-                npc.setPosition(position);
-                forceSave();
-                return;
-            }
-        }
+        NpcData npc = NPC_INDEX.get(id);
+        if (npc == null) return;
+        npc.setPosition(position);
+        persist(npc);
     }
 
     /**
@@ -368,13 +1639,12 @@ public final class NpcRegistry {
      * @param newName the new name
      */
     public static void changeName(int id, String newName) {
-        for (NpcData npc : NPC_LIST) {
-            if (npc.id == id) {
-                npc.name = newName;
-                forceSave();
-                return;
-            }
-        }
+        NpcData npc = NPC_INDEX.get(id);
+        if (npc == null) return;
+        npc.name = newName;
+        npc.markChanged();
+        persist(npc);
+        fire(id, Change.NAME);
     }
 
     /**
@@ -384,13 +1654,12 @@ public final class NpcRegistry {
      * @param newSkin the new skin
      */
     public static void changeSkin(int id, String newSkin) {
-        for (NpcData npc : NPC_LIST) {
-            if (npc.id == id) {
-                npc.skin = newSkin;
-                forceSave();
-                return;
-            }
-        }
+        NpcData npc = NPC_INDEX.get(id);
+        if (npc == null) return;
+        npc.skin = newSkin;
+        npc.markChanged();
+        persist(npc);
+        fire(id, Change.SKIN);
     }
 
     /**
@@ -400,13 +1669,11 @@ public final class NpcRegistry {
      * @param path the path
      */
     public static void setPath(int id, List<Waypoint> path) {
-        for (NpcData npc : NPC_LIST) {
-            if (npc.id == id) {
-                npc.setPath(path);
-                forceSave();
-                return;
-            }
-        }
+        NpcData npc = NPC_INDEX.get(id);
+        if (npc == null) return;
+        npc.setPath(path);
+        persist(npc);
+        fire(id, Change.PATH);
     }
 
     /**
@@ -416,13 +1683,12 @@ public final class NpcRegistry {
      * @param waypoint the waypoint
      */
     public static void addWaypoint(int id, Waypoint waypoint) {
-        for (NpcData npc : NPC_LIST) {
-            if (npc.id == id) {
-                npc.getPath().add(waypoint);
-                forceSave();
-                return;
-            }
-        }
+        NpcData npc = NPC_INDEX.get(id);
+        if (npc == null) return;
+        npc.getPath().add(waypoint);
+        npc.markChanged();
+        persist(npc);
+        fire(id, Change.PATH);
     }
 
     /**
@@ -432,13 +1698,11 @@ public final class NpcRegistry {
      * @param dialogue the dialogue
      */
     public static void setDialogue(int id, DialogueData dialogue) {
-        for (NpcData npc : NPC_LIST) {
-            if (npc.id == id) {
-                npc.setDialogue(dialogue);
-                forceSave();
-                return;
-            }
-        }
+        NpcData npc = NPC_INDEX.get(id);
+        if (npc == null) return;
+        npc.setDialogue(dialogue);
+        persist(npc);
+        fire(id, Change.DIALOGUE);
     }
 
     /**
@@ -447,52 +1711,143 @@ public final class NpcRegistry {
      * @param id the id
      */
     public static void clearPath(int id) {
-        for (NpcData npc : NPC_LIST) {
-            if (npc.id == id) {
-                npc.getPath().clear();
-                forceSave();
-                return;
-            }
-        }
+        NpcData npc = NPC_INDEX.get(id);
+        if (npc == null) return;
+        npc.getPath().clear();
+        npc.markChanged();
+        persist(npc);
+        fire(id, Change.PATH);
     }
 
     /**
      * Gets all npcs.
      *
+     * The list is an immutable snapshot that is never modified, only replaced when NPCs
+     * are added or removed, so it is safe to keep and iterate from any thread. The NPCs
+     * in it are the live objects, whose fields are only changed on the server thread.
+     *
      * @return the all npcs
      */
     public static List<NpcData> getAllNpcs() {
-        return List.copyOf(NPC_LIST);
+        return NPC_LIST;
     }
 
     /**
-     * Gets npc by id.
+     * Gets npc by id. Safe from any thread: the index is replaced, never modified.
      *
      * @param id the id
      * @return the npc by id
      */
     public static Optional<NpcData> getNpcById(int id) {
-        return NPC_LIST.stream().filter(npc -> npc.id == id).findFirst();
+        return lookup(NPC_INDEX, id);
+    }
+
+    /**
+     * The lookup behind {@link #getNpcById}, against any index from {@link #buildIndex}
+     * (lets the benchmark time it on synthetic data without touching the registry).
+     */
+    public static Optional<NpcData> lookup(Int2ObjectMap<NpcData> index, int id) {
+        return Optional.ofNullable(index.get(id));
+    }
+
+    /**
+     * @param id the id
+     * @return true if an NPC with this id is registered
+     */
+    public static boolean contains(int id) {
+        return NPC_INDEX.containsKey(id);
+    }
+
+    /**
+     * NPCs created or changed after the given version, as read-only save copies.
+     * If {@code since} is older than {@link #getLoadedVersion()}, removals may be
+     * missing and the caller should do a full sync instead.
+     *
+     * @param since last version the caller has seen
+     * @return the changed NPCs
+     */
+    public static List<NpcData> getChangedSince(long since) {
+        List<NpcData> changed = new ArrayList<>();
+        for (NpcData npc : NPC_LIST) {
+            if (npc.version > since) {
+                changed.add(npc.frozenCopy());
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Ids removed after the given version (tracked since the registry was loaded).
+     */
+    public static IntList getRemovedSince(long since) {
+        IntList removed = new IntArrayList();
+        for (Int2LongMap.Entry entry : REMOVED_AT.int2LongEntrySet()) {
+            if (entry.getLongValue() > since) {
+                removed.add(entry.getIntKey());
+            }
+        }
+        return removed;
+    }
+
+    public static long getCurrentVersion() {
+        return VERSION_CLOCK;
+    }
+
+    public static long getLoadedVersion() {
+        return loadedVersion;
+    }
+
+    /**
+     * @return NPCs changed but not yet written
+     */
+    public static int getDirtyCount() {
+        return DIRTY_NPCS.size();
     }
 
     /**
      * Clear.
      */
     public static void clear() {
-        NPC_LIST.clear();
-        forceSave();
+        long version = ++VERSION_CLOCK;
+        List<NpcData> cleared = NPC_LIST;
+        for (NpcData npc : cleared) {
+            REMOVED_AT.put(npc.id, version);
+        }
+        publish(List.of());
+        DIRTY_NPCS.clear();
+        needsSave = true;
+        if (storageMode == StorageMode.SHARDED) {
+            // Rewriting every region with no members deletes the files
+            LongIterator regions = REGION_MEMBERS.keySet().iterator();
+            while (regions.hasNext()) {
+                markRegionDirty(regions.nextLong());
+            }
+            REGION_MEMBERS.clear();
+        }
+        if (journal != null) {
+            journal.appendClear();
+            compactIfNeeded();
+        } else {
+            forceSave();
+        }
+        for (NpcData npc : cleared) {
+            fire(npc.id, Change.REMOVED);
+        }
+    }
+
+    // Server thread only; install() replaces every NpcData without firing, as nothing is bound to them yet
+    private static void fire(int id, Change change) {
+        NpcRegistryChangeCallback.EVENT.invoker().onNpcChanged(id, change);
     }
 
 
 
         public static void setTradeData(int id, TradeData tradeData) {
-            for (NpcData npc : NPC_LIST) {
-                if (npc.id == id) {
-                    npc.setTradeData(tradeData);
-                    forceSave();
-                    return;
-                }
-            }
+            NpcData npc = NPC_INDEX.get(id);
+            if (npc == null) return;
+            npc.setTradeData(tradeData);
+            persist(npc);
+            fire(id, Change.TRADES);
         }
 
     public static boolean hasTrades(int id) {
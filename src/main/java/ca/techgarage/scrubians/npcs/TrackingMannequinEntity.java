@@ -2,9 +2,11 @@ package ca.techgarage.scrubians.npcs;
 
 import ca.techgarage.scrubians.Scrubians;
 import ca.techgarage.scrubians.ScrubiansConfig;
+import ca.techgarage.scrubians.StartupOrchestrator;
 import ca.techgarage.scrubians.dialogue.DialoguePackets;
 import ca.techgarage.scrubians.dialogue.DialogueSessionManager;
 import ca.techgarage.scrubians.dialogue.NPCDialogue;
+import ca.techgarage.scrubians.events.NpcRegistryChangeCallback;
 import net.minecraft.entity.EntityType;
 import net.minecraft.entity.decoration.MannequinEntity;
 import net.minecraft.entity.player.PlayerEntity;
@@ -45,18 +47,28 @@ public class TrackingMannequinEntity extends MannequinEntity {
     private float targetYaw = 0.0F;
     private float targetPitch = 0.0F;
     private int npcId;
+    // Registry entry, bound on load or the first tick and kept current by registry change events
+    private NpcRegistry.NpcData npcData;
 
     // Path following state
     private int currentWaypointIndex = 0;
     private int waypointWaitTimer = 0;
     private boolean isWaitingAtWaypoint = false;
 
+    // Last position handed to NpcPositionSync (null until first synced)
+    private Vec3d syncedPos;
+
     public TrackingMannequinEntity(EntityType<MannequinEntity> entityType, World world) {
         super(entityType, world);
     }
 
     public void setNpcId(int id) {
+        int oldId = this.npcId;
         this.npcId = id;
+        if (oldId != id) {
+            this.npcData = null;
+            NpcEntityIndex.onNpcIdChanged(this, oldId);
+        }
     }
 
     public int getNpcId() {
@@ -67,47 +79,110 @@ public class TrackingMannequinEntity extends MannequinEntity {
     public void tick() {
         super.tick();
 
-        if (!this.getEntityWorld().isClient()) {
-            // Verify NPC still exists in registry every 200 ticks (10 seconds)
-            if (this.age % 200 == 0 && this.npcId >= 0) {
+        // Stands still while the registry loads at startup
+        if (!this.getEntityWorld().isClient() && NpcRegistry.isLoaded()) {
+            NpcRegistry.NpcData data = this.npcData;
+            if (data == null) {
+                // Loaded while the registry was still loading, or just spawned
                 var npcOpt = NpcRegistry.getNpcById(this.npcId);
                 if (npcOpt.isEmpty()) {
                     Scrubians.logger("info","[Scrubians] NPC #" + this.npcId + " no longer in registry, removing entity");
                     this.discard();
                     return;
                 }
+                data = npcOpt.get();
+                this.bind(data);
             }
 
-            if (this.age <= 3 && this.npcId >= 0) {
-                var npcOpt = NpcRegistry.getNpcById(this.npcId);
-                if (npcOpt.isPresent()) {
-                    var pathSize = npcOpt.get().getPath().size();
-                    if (pathSize > 0 && this.age == 1) {
-                        Scrubians.logger("info","[Scrubians] NPC #" + this.npcId + " has " + pathSize + " waypoints, starting pathfinding");
-                    }
+            this.updateLookDirection();
+            this.updatePathFollowing(data);
+
+            this.syncPosition(data);
+        }
+    }
+
+    /**
+     * Route a registry change to the loaded mannequins of that NPC. Registered on
+     * {@link NpcRegistryChangeCallback#EVENT}.
+     */
+    public static void onRegistryChange(int npcId, NpcRegistryChangeCallback.Change change) {
+        if (change == NpcRegistryChangeCallback.Change.ADDED) return; // no entity yet
+        for (TrackingMannequinEntity npc : NpcEntityIndex.getLoaded(npcId)) {
+            if (!npc.isRemoved()) {
+                npc.onNpcChanged(change);
+            }
+        }
+    }
+
+    private void onNpcChanged(NpcRegistryChangeCallback.Change change) {
+        NpcRegistry.NpcData data = this.npcData;
+        switch (change) {
+            case REMOVED -> {
+                Scrubians.logger("info","[Scrubians] NPC #" + this.npcId + " removed from registry, removing entity");
+                this.discard();
+            }
+            case NAME -> {
+                if (data != null) this.setCustomName(Text.literal(data.name));
+            }
+            case SKIN -> {
+                if (data != null && this.getEntityWorld() instanceof ServerWorld world) {
+                    NpcEntityFactory.applySkin(world, this, data.skin);
                 }
             }
+            case PATH -> this.initializePathfinding();
+            default -> {
+                // Dialogue and trades are read from the registry when a player interacts
+            }
+        }
+    }
 
-            this.updateLookDirection();
-            this.updatePathFollowing();
+    /**
+     * Pick the nearest player to look at. Run every few ticks by {@link NpcLookTargets}.
+     */
+    void refreshLookTarget() {
+        PlayerEntity closestPlayer = this.findClosestPlayer();
+
+        if (closestPlayer != null) {
+            this.lookTimer = 40;
+            calculateLookAngles(closestPlayer);
+        } else if (this.lookTimer <= 0) {
+            this.targetYaw = this.bodyYaw;
+            this.targetPitch = 0.0F;
+        }
+    }
 
-            if (this.age % 10 == 0) {
-                NpcRegistry.getNpcById(this.npcId).ifPresent(npc -> {
-                    NpcRegistry.changePosition(this.npcId, this.getEntityPos());
-                });
-            }
+    private void bind(NpcRegistry.NpcData data) {
+        this.npcData = data;
+        // Picks up a rename made while this entity was unloaded
+        if (data.name != null && (this.getCustomName() == null || !data.name.equals(this.getCustomName().getString()))) {
+            this.setCustomName(Text.literal(data.name));
+        }
+        int pathSize = data.getPath().size();
+        if (pathSize > 0) {
+            Scrubians.logger("info","[Scrubians] NPC #" + this.npcId + " has " + pathSize + " waypoints, starting pathfinding");
+        }
+    }
+
+    private void syncPosition(NpcRegistry.NpcData data) {
+        Vec3d pos = this.getEntityPos();
+        if (this.syncedPos == null) {
+            this.syncedPos = data.getPosition();
+        }
+        if (NpcPositionSync.hasMoved(this.syncedPos, pos)) {
+            this.syncedPos = pos;
+            NpcPositionSync.queue(this.npcId, pos);
         }
     }
+
     private void initializePathfinding() {
         this.currentWaypointIndex = 0;
         this.waypointWaitTimer = 0;
         this.isWaitingAtWaypoint = false;
 
-        NpcRegistry.getNpcById(this.npcId).ifPresent(npc -> {
-            if (npc.getPath() != null && !npc.getPath().isEmpty()) {
-                Scrubians.logger("info","[Scrubians] NPC #" + this.npcId + " initialized with " + npc.getPath().size() + " waypoints");
-            }
-        });
+        NpcRegistry.NpcData npc = this.npcData;
+        if (npc != null && !npc.getPath().isEmpty()) {
+            Scrubians.logger("info","[Scrubians] NPC #" + this.npcId + " initialized with " + npc.getPath().size() + " waypoints");
+        }
     }
 
     @Override
@@ -137,6 +212,9 @@ public class TrackingMannequinEntity extends MannequinEntity {
             return;
         }
 
+        // Registry still loading at startup; the chunk cleanup checks this entity once it is ready
+        if (!NpcRegistry.isLoaded()) return;
+
         // Check if NPC exists in registry
         var npcOpt = NpcRegistry.getNpcById(this.npcId);
         if (npcOpt.isEmpty()) {
@@ -146,6 +224,7 @@ public class TrackingMannequinEntity extends MannequinEntity {
         }
 
         Scrubians.logger("info","[Scrubians] ✓ NPC #" + this.npcId + " found in registry: " + npcOpt.get().name);
+        this.bind(npcOpt.get());
     }
 
     @Override
@@ -153,12 +232,11 @@ public class TrackingMannequinEntity extends MannequinEntity {
         return false;
     }
 
-    private void updatePathFollowing() {
-        var npcDataOpt = NpcRegistry.getNpcById(this.npcId);
-        if (npcDataOpt.isEmpty()) return;
-
-        List<NpcRegistry.Waypoint> path = npcDataOpt.get().getPath();
+    private void updatePathFollowing(NpcRegistry.NpcData data) {
+        List<NpcRegistry.Waypoint> path = data.getPath();
         if (path == null || path.isEmpty()) return;
+        // Saved index from before the path was shortened
+        if (currentWaypointIndex >= path.size()) currentWaypointIndex = 0;
 
         if (isWaitingAtWaypoint) {
             waypointWaitTimer--;
@@ -207,18 +285,6 @@ public class TrackingMannequinEntity extends MannequinEntity {
     }
 
     private void updateLookDirection() {
-        if (this.age % 10 == 0) {
-            PlayerEntity closestPlayer = this.findClosestPlayer();
-
-            if (closestPlayer != null) {
-                this.lookTimer = 40;
-                calculateLookAngles(closestPlayer);
-            } else if (this.lookTimer <= 0) {
-                this.targetYaw = this.bodyYaw;
-                this.targetPitch = 0.0F;
-            }
-        }
-
         if (this.lookTimer > 0) {
             this.lookTimer--;
         }
@@ -290,6 +356,10 @@ public class TrackingMannequinEntity extends MannequinEntity {
             // Update last interaction time
             LAST_INTERACTION.put(player.getUuid(), currentTime);
 
+            if (StartupOrchestrator.rejectWhileLoading(player)) {
+                return ActionResult.SUCCESS;
+            }
+
             var npcDataOpt = NpcRegistry.getNpcById(this.npcId);
             if (npcDataOpt.isEmpty()) {
                 player.sendMessage(Text.literal("§cNPC data not found!"), false);
@@ -1,17 +1,12 @@
 package ca.techgarage.scrubians.npcs;
 
+import ca.techgarage.scrubians.persistence.ItemStackCache;
 import com.google.gson.*;
 import net.minecraft.item.ItemStack;
-import net.minecraft.registry.RegistryWrapper;
-import net.minecraft.nbt.NbtCompound;
-import net.minecraft.nbt.NbtElement;
-import net.minecraft.nbt.NbtList;
-import net.minecraft.nbt.NbtOps;
 
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.List;
-import net.minecraft.nbt.StringNbtReader;
 /**
  * Represents trading data for an NPC
  */
@@ -45,6 +40,20 @@ public class TradeData {
         public boolean isValid() {
             return !result.isEmpty() && !firstCost.isEmpty();
         }
+
+        /**
+         * Copy with independent item stacks (safe to serialize off-thread).
+         */
+        public Trade copy() {
+            Trade copy = new Trade();
+            copy.result = result.copy();
+            copy.firstCost = firstCost.copy();
+            copy.secondCost = secondCost.copy();
+            copy.maxUses = maxUses;
+            copy.uses = uses;
+            copy.experience = experience;
+            return copy;
+        }
     }
 
     public List<Trade> trades;
@@ -53,6 +62,19 @@ public class TradeData {
         this.trades = new ArrayList<>();
     }
 
+    /**
+     * Deep copy of every trade.
+     */
+    public TradeData copy() {
+        TradeData copy = new TradeData();
+        if (trades != null) {
+            for (Trade trade : trades) {
+                copy.trades.add(trade.copy());
+            }
+        }
+        return copy;
+    }
+
     // Gson serializer for ItemStack
     public static class ItemStackSerializer implements JsonSerializer<ItemStack>, JsonDeserializer<ItemStack> {
 
@@ -62,19 +84,8 @@ public class TradeData {
                 return JsonNull.INSTANCE;
             }
 
-            JsonObject json = new JsonObject();
-            json.addProperty("id", stack.getItem().toString());
-            json.addProperty("count", stack.getCount());
-
-            // Serialize components to NBT, then to JSON
-            NbtCompound nbt = new NbtCompound();
-            NbtCompound stackNbt = (NbtCompound) ItemStack.CODEC.encodeStart(NbtOps.INSTANCE, stack)
-                    .getOrThrow();
-
-            // Store the full NBT data
-            json.addProperty("nbt", stackNbt.toString());
-
-            return json;
+            // Structural JSON ({"id", "count", "components"}), cached per distinct stack
+            return ItemStackCache.encodeJson(stack);
         }
 
         @Override
@@ -86,18 +97,17 @@ public class TradeData {
 
             JsonObject obj = json.getAsJsonObject();
 
-            if (obj.has("nbt")) {
-                try {
-                    String nbtString = obj.get("nbt").getAsString();
-                    NbtCompound nbt = StringNbtReader.readCompound(nbtString);
-                    return ItemStack.CODEC.decode(NbtOps.INSTANCE, nbt)
-                            .getOrThrow().getFirst();
-                } catch (Exception e) {
-                    return ItemStack.EMPTY;
+            // Thrown on, never swallowed: loading an undecodable item as empty would save it away
+            try {
+                // Older files store the whole stack as an SNBT string
+                if (obj.has("nbt")) {
+                    return ItemStackCache.decodeSnbt(obj.get("nbt").getAsString());
                 }
-            }
 
-            return ItemStack.EMPTY;
+                return ItemStackCache.decodeJson(obj);
+            } catch (IllegalStateException e) {
+                throw new JsonParseException("Trade item could not be decoded: " + e.getMessage(), e);
+            }
         }
     }
 
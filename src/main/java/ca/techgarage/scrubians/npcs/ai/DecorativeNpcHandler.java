@@ -90,7 +90,8 @@ public class DecorativeNpcHandler {
      * Tick all decorative NPCs - call this every server tick
      */
     public static void tickDecorativeNpcs(ServerWorld world) {
-        int currentTick = (int) world.getTimeOfDay();
+        // Game time, not time of day: it keeps counting with doDaylightCycle off
+        int currentTick = (int) world.getTime();
         List<UUID> toRemove = new ArrayList<>();
 
         for (DecorativeNpcData data : DECORATIVE_NPCS.values()) {
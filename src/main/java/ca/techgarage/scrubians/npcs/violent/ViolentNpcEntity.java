@@ -18,10 +18,12 @@ import net.minecraft.entity.passive.PassiveEntity;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.registry.Registries;
+import net.minecraft.registry.RegistryKey;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.text.Text;
 import net.minecraft.util.Identifier;
 import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.World;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -41,9 +43,17 @@ public class ViolentNpcEntity {
     private static final String LINKED_ENTITY_UUID_MOST_TAG = "ScrubianLinkedEntityUuidMost";
     private static final String LINKED_ENTITY_UUID_LEAST_TAG = "ScrubianLinkedEntityUuidLeast";
 
-    // Track AI entity -> Display entity relationships
-    private static final Map<UUID, UUID> AI_TO_DISPLAY = new HashMap<>();
-    private static final Map<UUID, UUID> DISPLAY_TO_AI = new HashMap<>();
+    // Track AI entity <-> Display entity relationships, per world
+    private static final Map<RegistryKey<World>, HybridLinks> HYBRID_LINKS = new HashMap<>();
+
+    private static final class HybridLinks {
+        final Map<UUID, UUID> aiToDisplay = new HashMap<>();
+        final Map<UUID, UUID> displayToAi = new HashMap<>();
+    }
+
+    private static HybridLinks links(ServerWorld world) {
+        return HYBRID_LINKS.computeIfAbsent(world.getRegistryKey(), key -> new HybridLinks());
+    }
 
     /**
      * Spawn a violent NPC using a vanilla entity type
@@ -232,8 +242,9 @@ public class ViolentNpcEntity {
         }
 
         // Track the relationship
-        AI_TO_DISPLAY.put(zombie.getUuid(), displayEntity.getUuid());
-        DISPLAY_TO_AI.put(displayEntity.getUuid(), zombie.getUuid());
+        HybridLinks links = links(world);
+        links.aiToDisplay.put(zombie.getUuid(), displayEntity.getUuid());
+        links.displayToAi.put(displayEntity.getUuid(), zombie.getUuid());
 
         // Update NBT with linked UUIDs (store as two longs)
         UUID displayUuid = displayEntity.getUuid();
@@ -350,83 +361,92 @@ public class ViolentNpcEntity {
     }
 
     /**
-     * Check if an entity is a violent NPC
+     * Get the violent NPC tags of an entity. Read from CUSTOM_DATA once and cached on the
+     * entity until its CUSTOM_DATA component is replaced.
      */
-    public static boolean isViolentNpc(Entity entity) {
+    public static ViolentNpcMarker getMarker(Entity entity) {
         NbtComponent customData = entity.get(DataComponentTypes.CUSTOM_DATA);
-        if (customData == null || customData.isEmpty()) return false;
+        ViolentNpcMarkerHolder holder = (ViolentNpcMarkerHolder) entity;
+        ViolentNpcMarker marker = holder.scrubians$getViolentMarker();
+        // Components are immutable, so the same instance means the same tags
+        if (marker == null || marker.source() != customData) {
+            marker = readMarker(customData);
+            holder.scrubians$setViolentMarker(marker);
+        }
+        return marker;
+    }
+
+    private static ViolentNpcMarker readMarker(NbtComponent customData) {
+        if (customData == null || customData.isEmpty()) return ViolentNpcMarker.none(customData);
+
         NbtCompound nbt = customData.copyNbt();
-        return nbt.contains(NPC_ID_TAG);
+        boolean violent = nbt.contains(NPC_ID_TAG);
+        Optional<UUID> linked = Optional.empty();
+        if (nbt.contains(LINKED_ENTITY_UUID_MOST_TAG) && nbt.contains(LINKED_ENTITY_UUID_LEAST_TAG)) {
+            long most = nbt.getLong(LINKED_ENTITY_UUID_MOST_TAG).orElse(-1L);
+            long least = nbt.getLong(LINKED_ENTITY_UUID_LEAST_TAG).orElse(-1L);
+            linked = Optional.of(new UUID(most, least));
+        }
+        return new ViolentNpcMarker(
+                customData,
+                violent,
+                violent ? nbt.getInt(NPC_ID_TAG) : Optional.empty(),
+                nbt.contains(BASE_TYPE_TAG) ? nbt.getString(BASE_TYPE_TAG) : Optional.empty(),
+                nbt.getBoolean(IS_AI_ENTITY_TAG, false),
+                nbt.getBoolean(IS_DISPLAY_ENTITY_TAG, false),
+                linked
+        );
+    }
+
+    /**
+     * Check if an entity is a violent NPC
+     */
+    public static boolean isViolentNpc(Entity entity) {
+        return getMarker(entity).violent();
     }
 
     /**
      * Check if entity is an AI entity (invisible zombie in hybrid mode)
      */
     public static boolean isAiEntity(Entity entity) {
-        NbtComponent customData = entity.get(DataComponentTypes.CUSTOM_DATA);
-        if (customData == null || customData.isEmpty()) return false;
-        NbtCompound nbt = customData.copyNbt();
-        return nbt.getBoolean(IS_AI_ENTITY_TAG, false);
+        return getMarker(entity).aiEntity();
     }
 
     /**
      * Check if entity is a display entity (visible entity in hybrid mode)
      */
     public static boolean isDisplayEntity(Entity entity) {
-        NbtComponent customData = entity.get(DataComponentTypes.CUSTOM_DATA);
-        if (customData == null || customData.isEmpty()) return false;
-        NbtCompound nbt = customData.copyNbt();
-        return nbt.getBoolean(IS_DISPLAY_ENTITY_TAG, false);
+        return getMarker(entity).displayEntity();
     }
 
     /**
      * Get the NPC ID from an entity
      */
     public static Optional<Integer> getNpcId(Entity entity) {
-        NbtComponent customData = entity.get(DataComponentTypes.CUSTOM_DATA);
-        if (customData == null || customData.isEmpty()) return Optional.empty();
-
-        NbtCompound nbt = customData.copyNbt();
-        if (!nbt.contains(NPC_ID_TAG)) return Optional.empty();
-
-        return nbt.getInt(NPC_ID_TAG);
+        return getMarker(entity).npcId();
     }
 
     /**
      * Get the base entity type from an entity
      */
     public static Optional<String> getBaseType(Entity entity) {
-        NbtComponent customData = entity.get(DataComponentTypes.CUSTOM_DATA);
-        if (customData == null || customData.isEmpty()) return Optional.empty();
-
-        NbtCompound nbt = customData.copyNbt();
-        if (!nbt.contains(BASE_TYPE_TAG)) return Optional.empty();
-
-        return nbt.getString(BASE_TYPE_TAG);
+        return getMarker(entity).baseType();
     }
 
     /**
      * Get linked entity UUID (for hybrid NPCs)
      */
     public static Optional<UUID> getLinkedEntityUuid(Entity entity) {
-        NbtComponent customData = entity.get(DataComponentTypes.CUSTOM_DATA);
-        if (customData == null || customData.isEmpty()) return Optional.empty();
-
-        NbtCompound nbt = customData.copyNbt();
-        if (!nbt.contains(LINKED_ENTITY_UUID_MOST_TAG) || !nbt.contains(LINKED_ENTITY_UUID_LEAST_TAG)) {
-            return Optional.empty();
-        }
-
-        long most = nbt.getLong(LINKED_ENTITY_UUID_MOST_TAG).orElse(-1L);
-        long least = nbt.getLong(LINKED_ENTITY_UUID_LEAST_TAG).orElse(-1L);
-        return Optional.of(new UUID(most, least));
+        return getMarker(entity).linkedEntity();
     }
 
     /**
      * Get display entity from AI entity
      */
     public static Entity getDisplayEntity(ServerWorld world, Entity aiEntity) {
-        UUID displayUuid = AI_TO_DISPLAY.get(aiEntity.getUuid());
+        HybridLinks links = HYBRID_LINKS.get(world.getRegistryKey());
+        if (links == null) return null;
+        UUID displayUuid = links.aiToDisplay.get(aiEntity.getUuid());
         if (displayUuid == null) return null;
         return world.getEntity(displayUuid);
     }
@@ -435,7 +455,9 @@ public class ViolentNpcEntity {
      * Get AI entity from display entity
      */
     public static Entity getAiEntity(ServerWorld world, Entity displayEntity) {
-        UUID aiUuid = DISPLAY_TO_AI.get(displayEntity.getUuid());
+        HybridLinks links = HYBRID_LINKS.get(world.getRegistryKey());
+        if (links == null) return null;
+        UUID aiUuid = links.displayToAi.get(displayEntity.getUuid());
         if (aiUuid == null) return null;
         return world.getEntity(aiUuid);
     }
@@ -450,35 +472,36 @@ public class ViolentNpcEntity {
     }
 
     /**
-     * Tick fire immunity for all violent NPCs
+     * Check if an entity belongs to a fire immune violent NPC (see EntityMixin)
      */
-    public static void tickFireImmunity(ServerWorld world) {
-        for (Entity entity : world.iterateEntities()) {
-            if (isViolentNpc(entity)) {
-                entity.setFireTicks(0);
-            }
-        }
+    public static boolean isFireImmune(Entity entity) {
+        ViolentNpcMarker marker = getMarker(entity);
+        return marker.violent() && marker.npcId().isPresent()
+                && ViolentNpcRegistry.isFireImmune(marker.npcId().get());
     }
 
     /**
      * Tick hybrid NPCs to keep display entities synced and health linked
      */
     public static void tickHybridNpcs(ServerWorld world) {
+        HybridLinks links = HYBRID_LINKS.get(world.getRegistryKey());
+        if (links == null) return;
+
         // Clean up broken links
-        AI_TO_DISPLAY.entrySet().removeIf(entry -> {
+        links.aiToDisplay.entrySet().removeIf(entry -> {
             Entity aiEntity = world.getEntity(entry.getKey());
             Entity displayEntity = world.getEntity(entry.getValue());
             return aiEntity == null || displayEntity == null || !aiEntity.isAlive() || !displayEntity.isAlive();
         });
 
-        DISPLAY_TO_AI.entrySet().removeIf(entry -> {
+        links.displayToAi.entrySet().removeIf(entry -> {
             Entity displayEntity = world.getEntity(entry.getKey());
             Entity aiEntity = world.getEntity(entry.getValue());
             return displayEntity == null || aiEntity == null || !displayEntity.isAlive() || !aiEntity.isAlive();
         });
 
         // Sync positions, rotations, and health for hybrid NPCs
-        for (Map.Entry<UUID, UUID> entry : AI_TO_DISPLAY.entrySet()) {
+        for (Map.Entry<UUID, UUID> entry : links.aiToDisplay.entrySet()) {
             Entity aiEntity = world.getEntity(entry.getKey());
             Entity displayEntity = world.getEntity(entry.getValue());
 
@@ -529,7 +552,13 @@ public class ViolentNpcEntity {
      * Clear hybrid tracking maps
      */
     public static void clearHybridTracking() {
-        AI_TO_DISPLAY.clear();
-        DISPLAY_TO_AI.clear();
+        HYBRID_LINKS.clear();
+    }
+
+    /**
+     * Clear hybrid tracking maps of one world
+     */
+    public static void clearHybridTracking(ServerWorld world) {
+        HYBRID_LINKS.remove(world.getRegistryKey());
     }
 }
\ No newline at end of file
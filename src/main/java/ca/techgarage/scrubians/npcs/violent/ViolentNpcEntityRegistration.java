@@ -2,6 +2,7 @@ package ca.techgarage.scrubians.npcs.violent;
 
 import ca.techgarage.scrubians.events.ViolentNpcDeathCallback;
 import net.fabricmc.fabric.api.entity.event.v1.ServerLivingEntityEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerEntityEvents;
 import net.minecraft.entity.Entity;
 import net.minecraft.server.world.ServerWorld;
 
@@ -18,6 +19,13 @@ public class ViolentNpcEntityRegistration {
      * Call this in your mod's onInitialize() method
      */
     public static void register() {
+        // Keep the tracker's live population counters current
+        ServerEntityEvents.ENTITY_LOAD.register(ViolentNpcTracker::onEntityLoad);
+        ServerEntityEvents.ENTITY_UNLOAD.register(ViolentNpcTracker::onEntityUnload);
+
+        // Spawn timers, spawn verification, cleanup and recounts
+        ViolentNpcTracker.registerTasks();
+
         // Listen for entity deaths
         ServerLivingEntityEvents.AFTER_DEATH.register((entity, damageSource) -> {
             if (entity.getEntityWorld() instanceof ServerWorld serverWorld) {
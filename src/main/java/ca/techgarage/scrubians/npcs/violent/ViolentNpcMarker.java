@@ -0,0 +1,34 @@
+package ca.techgarage.scrubians.npcs.violent;
+
+import net.minecraft.component.type.NbtComponent;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Typed copy of the violent NPC tags in an entity's CUSTOM_DATA, cached on the entity
+ * (see {@link ViolentNpcMarkerHolder}). The CUSTOM_DATA tags stay the persisted source
+ * of truth: a marker is only valid for the exact {@link NbtComponent} it was read from.
+ *
+ * @param source        the component this marker was read from
+ * @param violent       true if the NPC id tag is present
+ * @param npcId         registry id
+ * @param baseType      entity type string the NPC was spawned as
+ * @param aiEntity      invisible AI half of a hybrid NPC
+ * @param displayEntity visible half of a hybrid NPC
+ * @param linkedEntity  UUID of the other half of a hybrid NPC
+ */
+public record ViolentNpcMarker(
+        NbtComponent source,
+        boolean violent,
+        Optional<Integer> npcId,
+        Optional<String> baseType,
+        boolean aiEntity,
+        boolean displayEntity,
+        Optional<UUID> linkedEntity
+) {
+
+    static ViolentNpcMarker none(NbtComponent source) {
+        return new ViolentNpcMarker(source, false, Optional.empty(), Optional.empty(), false, false, Optional.empty());
+    }
+}
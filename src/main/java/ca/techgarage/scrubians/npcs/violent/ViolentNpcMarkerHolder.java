@@ -0,0 +1,11 @@
+package ca.techgarage.scrubians.npcs.violent;
+
+/**
+ * Implemented on every Entity by EntityMixin to hold its cached {@link ViolentNpcMarker}.
+ */
+public interface ViolentNpcMarkerHolder {
+
+    ViolentNpcMarker scrubians$getViolentMarker();
+
+    void scrubians$setViolentMarker(ViolentNpcMarker marker);
+}
@@ -1,9 +1,17 @@
 package ca.techgarage.scrubians.npcs.violent;
 
 import ca.techgarage.scrubians.Scrubians;
+import ca.techgarage.scrubians.ScrubiansConfig;
+import ca.techgarage.scrubians.persistence.AsyncRegistryWriter;
+import ca.techgarage.scrubians.persistence.NpcBinaryFormat;
+import ca.techgarage.scrubians.persistence.RegistryJournal;
+import ca.techgarage.scrubians.persistence.StorageMode;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMaps;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import net.minecraft.entity.EntityType;
 import net.minecraft.util.Identifier;
 import net.minecraft.util.math.Vec3d;
@@ -13,20 +21,37 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 
 public final class ViolentNpcRegistry {
 
-    private static final List<ViolentNpcData> NPC_LIST = new ArrayList<>();
+    // Immutable, replaced on add/remove so getAllNpcs() can return it without copying
+    private static volatile List<ViolentNpcData> NPC_LIST = List.of();
+    // id -> NPC for NPC_LIST, rebuilt whenever the list is replaced
+    private static volatile Int2ObjectMap<ViolentNpcData> NPC_INDEX = Int2ObjectMaps.emptyMap();
     private static int NEXT_ID = 0;
     private static File saveFile;
+    private static File binaryFile;
+    private static StorageMode storageMode = StorageMode.JSON;
+    // Set when a failed migration left the registry empty, so saving would overwrite the only good copy
+    private static boolean savesBlocked = false;
+    private static AsyncRegistryWriter<ViolentNpcData> writer;
+    private static RegistryJournal<ViolentNpcData> journal;
     private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
     private static boolean needsSave = false;
     private static long lastSaveTime = 0;
     private static final long SAVE_INTERVAL_MS = 30000; // 30 seconds
+    // Edits only schedule a save; one snapshot is taken per window however many edits land in it
+    private static final long SAVE_COALESCE_MS = 250;
+    // When the coalesced save is due, or 0 if none is scheduled
+    private static long saveDueAt = 0;
 
     /**
      * The type Violent npc data.
@@ -39,6 +64,7 @@ public final class ViolentNpcRegistry {
         public SpawnArea spawnArea;
         public Stats stats;
         public boolean persistent; // If true, respawns when killed
+        public Boolean fireImmune; // If true, never burns or takes fire damage (missing in older files = true)
 
         /**
          * Instantiates a new Violent npc data.
@@ -55,6 +81,25 @@ public final class ViolentNpcRegistry {
             this.spawnArea = spawnArea;
             this.stats = new Stats();
             this.persistent = true;
+            this.fireImmune = true;
+        }
+
+        /**
+         * Deep copy that is safe to serialize off-thread.
+         */
+        public ViolentNpcData copy() {
+            ViolentNpcData copy = new ViolentNpcData(id, name, entityType, spawnArea != null ? spawnArea.copy() : null);
+            copy.stats = stats != null ? stats.copy() : null;
+            copy.persistent = persistent;
+            copy.fireImmune = fireImmune;
+            return copy;
+        }
+
+        /**
+         * @return true if spawned entities ignore fire, lava burning and fire damage
+         */
+        public boolean isFireImmune() {
+            return fireImmune == null || fireImmune;
         }
 
         /**
@@ -111,6 +156,24 @@ public final class ViolentNpcRegistry {
             this.respawnDelayTicks = respawnDelayTicks;
         }
 
+        /**
+         * Copy spawn area.
+         *
+         * @return the copy
+         */
+        public SpawnArea copy() {
+            SpawnArea copy = new SpawnArea();
+            copy.minX = minX;
+            copy.minY = minY;
+            copy.minZ = minZ;
+            copy.maxX = maxX;
+            copy.maxY = maxY;
+            copy.maxZ = maxZ;
+            copy.maxCount = maxCount;
+            copy.respawnDelayTicks = respawnDelayTicks;
+            return copy;
+        }
+
         /**
          * Gets random position.
          *
@@ -176,12 +239,45 @@ public final class ViolentNpcRegistry {
             this.followRange = followRange;
             this.glowing = false;
         }
+
+        /**
+         * Copy stats.
+         *
+         * @return the copy
+         */
+        public Stats copy() {
+            Stats copy = new Stats(health, attackDamage, speed, knockbackResistance, followRange);
+            copy.glowing = glowing;
+            return copy;
+        }
     }
 
     /**
+     * Registry contents read from disk by {@link #read}, published by {@link #install}.
+     */
+    public static final class LoadedState {
+        private File saveFile;
+        private File binaryFile;
+        private StorageMode storageMode;
+        private AsyncRegistryWriter<ViolentNpcData> writer;
+        private RegistryJournal<ViolentNpcData> journal;
+        private boolean savesBlocked;
+        // Nothing usable on disk: install() writes out the (empty) registry
+        private boolean saveOnInstall;
+        private List<ViolentNpcData> npcs = new ArrayList<>();
+
+        private LoadedState() {
+        }
+    }
+
+    /**
+     * Read (and migrate, if the storage mode changed) the registry on disk without touching
+     * the live one, so it can run on any thread; hand the result to {@link #install}.
+     *
      * @param serverRoot
      */
-    public static void init(File serverRoot) {
+    public static LoadedState read(File serverRoot) {
+        LoadedState state = new LoadedState();
         File scrubiansFolder = new File(serverRoot, ".scrubians");
         if (!scrubiansFolder.exists()) {
             scrubiansFolder.mkdirs();
@@ -192,47 +288,290 @@ public final class ViolentNpcRegistry {
             dataFolder.mkdirs();
         }
 
-        saveFile = new File(dataFolder, "violent_npcs.json");
+        File saveFile = new File(dataFolder, "violent_npcs.json");
+        File binaryFile = new File(dataFolder, "violent_npcs.bin");
+        state.saveFile = saveFile;
+        state.binaryFile = binaryFile;
+        state.storageMode = StorageMode.current();
+
+        // Violent NPCs are few and have no heavy payloads, so sharded mode stores them as one binary file
+        if (state.storageMode == StorageMode.BINARY || state.storageMode == StorageMode.SHARDED) {
+            Scrubians.logger("info","[Scrubians] Violent NPC binary file: " + binaryFile.getAbsolutePath());
+            state.writer = new AsyncRegistryWriter<>("violent NPCs", binaryFile.toPath(), NpcBinaryFormat::encodeViolentNpcs);
+            initBinary(state, dataFolder);
+            return state;
+        }
+
         Scrubians.logger("info","[Scrubians] Violent NPC JSON file: " + saveFile.getAbsolutePath());
+        state.writer = new AsyncRegistryWriter<>("violent NPCs", saveFile.toPath(), ViolentNpcRegistry::encodeJson);
+
+        if (!saveFile.exists() && binaryFile.exists()) {
+            // Switching back from binary mode
+            boolean read = false;
+            try {
+                List<ViolentNpcData> loaded = NpcBinaryFormat.readViolentNpcs(binaryFile.toPath());
+                applyLoaded(state, new ArrayList<>(loaded));
+                read = true;
+                AsyncRegistryWriter.writeAtomically(saveFile.toPath(), encodeJson(loaded));
+                Files.move(binaryFile.toPath(), new File(dataFolder, binaryFile.getName() + ".migrated").toPath(),
+                        StandardCopyOption.REPLACE_EXISTING);
+                Scrubians.logger("info","[Scrubians] Migrated " + loaded.size() + " violent NPCs from binary to JSON");
+            } catch (Exception e) {
+                Scrubians.logger("error","[Scrubians] Failed to migrate violent NPCs from binary to JSON:");
+                e.printStackTrace();
+                discardMigrationTarget(saveFile);
+                fallBackAfterFailedMigration(state, binaryFile, read);
+                return state;
+            }
+        }
+
+        if (state.storageMode == StorageMode.JOURNAL) {
+            state.journal = new RegistryJournal<>("violent NPC", new File(dataFolder, "violent_npcs.journal").toPath(),
+                    GSON, ViolentNpcData.class, npc -> npc.id);
+        }
 
         if (saveFile.exists()) {
             Scrubians.logger("info","[Scrubians] Loading violent NPCs from JSON...");
-            try (FileReader reader = new FileReader(saveFile)) {
-                Type listType = new TypeToken<List<ViolentNpcData>>() {}.getType();
-                List<ViolentNpcData> loaded = GSON.fromJson(reader, listType);
-                if (loaded != null) {
-                    NPC_LIST.clear();
-                    NPC_LIST.addAll(loaded);
-                    for (ViolentNpcData npc : NPC_LIST) {
-                        if (npc.id >= NEXT_ID) NEXT_ID = npc.id + 1;
-                        if (npc.stats == null) npc.stats = new Stats();
-                        if (npc.spawnArea == null) npc.spawnArea = new SpawnArea();
-                    }
-                    Scrubians.logger("info","[Scrubians] Loaded " + NPC_LIST.size() + " violent NPCs");
+            try {
+                List<ViolentNpcData> loaded = readJson(saveFile);
+                if (loaded != null || state.journal != null) {
+                    applyLoaded(state, loaded != null ? new ArrayList<>(loaded) : new ArrayList<>());
+                    Scrubians.logger("info","[Scrubians] Loaded " + state.npcs.size() + " violent NPCs");
                 }
             } catch (Exception e) {
                 Scrubians.logger("error","[Scrubians] ERROR loading violent NPCs:");
                 e.printStackTrace();
-                NPC_LIST.clear();
-                NEXT_ID = 0;
-                save();
+                state.npcs = new ArrayList<>();
+                if (state.journal != null) {
+                    applyLoaded(state, new ArrayList<>());
+                } else {
+                    state.saveOnInstall = true;
+                }
             }
+        } else if (state.journal != null) {
+            applyLoaded(state, new ArrayList<>());
         } else {
             Scrubians.logger("info","[Scrubians] Creating new violent NPCs file...");
+            state.saveOnInstall = true;
+        }
+        return state;
+    }
+
+    /**
+     * Make what {@link #read} returned the registry contents. Server thread only.
+     */
+    public static void install(LoadedState state) {
+        saveFile = state.saveFile;
+        binaryFile = state.binaryFile;
+        storageMode = state.storageMode;
+        writer = state.writer;
+        journal = state.journal;
+        savesBlocked = state.savesBlocked;
+
+        publish(List.copyOf(state.npcs));
+        NEXT_ID = 0;
+        for (ViolentNpcData npc : NPC_LIST) {
+            if (npc.id >= NEXT_ID) NEXT_ID = npc.id + 1;
+        }
+
+        if (state.saveOnInstall) {
             save();
         }
     }
 
-    private static void save() {
-        if (saveFile == null) return;
+    private static List<ViolentNpcData> readJson(File file) throws IOException {
+        try (FileReader reader = new FileReader(file)) {
+            Type listType = new TypeToken<List<ViolentNpcData>>() {}.getType();
+            return GSON.fromJson(reader, listType);
+        }
+    }
+
+    private static void initBinary(LoadedState state, File dataFolder) {
+        File binaryFile = state.binaryFile;
+        File saveFile = state.saveFile;
+        if (binaryFile.exists()) {
+            try {
+                applyLoaded(state, new ArrayList<>(NpcBinaryFormat.readViolentNpcs(binaryFile.toPath())));
+                Scrubians.logger("info","[Scrubians] Loaded " + state.npcs.size() + " violent NPCs from binary");
+            } catch (Exception e) {
+                Scrubians.logger("error","[Scrubians] ERROR loading violent NPCs from binary:");
+                e.printStackTrace();
+                try {
+                    Files.copy(binaryFile.toPath(), new File(dataFolder,
+                            "violent_npcs_corrupted_" + System.currentTimeMillis() + ".bin").toPath());
+                } catch (IOException backupError) {
+                    Scrubians.logger("error","[Scrubians] Failed to create backup: " + backupError.getMessage());
+                }
+                state.npcs = new ArrayList<>();
+                state.saveOnInstall = true;
+            }
+        } else if (saveFile.exists()) {
+            boolean read = false;
+            try {
+                List<ViolentNpcData> loaded = readJson(saveFile);
+                applyLoaded(state, loaded != null ? new ArrayList<>(loaded) : new ArrayList<>());
+                read = true;
+                AsyncRegistryWriter.writeAtomically(binaryFile.toPath(), NpcBinaryFormat.encodeViolentNpcs(snapshot(state.npcs)));
+                Files.move(saveFile.toPath(), new File(dataFolder, saveFile.getName() + ".migrated").toPath(),
+                        StandardCopyOption.REPLACE_EXISTING);
+                Scrubians.logger("info","[Scrubians] Migrated " + state.npcs.size() + " violent NPCs from JSON to binary");
+            } catch (Exception e) {
+                Scrubians.logger("error","[Scrubians] Failed to migrate violent NPCs to binary, keeping the JSON file:");
+                e.printStackTrace();
+                discardMigrationTarget(binaryFile);
+                fallBackAfterFailedMigration(state, saveFile, read);
+            }
+        } else {
+            state.saveOnInstall = true;
+        }
+    }
+
+    /**
+     * A migration failed, so keep saving in the source file's format this session (a file in
+     * the new format would win over the source on the next start). If the source could not
+     * even be read, saving is blocked altogether so the source survives.
+     */
+    private static void fallBackAfterFailedMigration(LoadedState state, File source, boolean sourceRead) {
+        if (source == state.binaryFile) {
+            state.storageMode = StorageMode.BINARY;
+            state.writer = new AsyncRegistryWriter<>("violent NPCs", state.binaryFile.toPath(), NpcBinaryFormat::encodeViolentNpcs);
+        } else {
+            state.storageMode = StorageMode.JSON;
+            state.writer = new AsyncRegistryWriter<>("violent NPCs", state.saveFile.toPath(), ViolentNpcRegistry::encodeJson);
+        }
+        state.savesBlocked = !sourceRead;
+        Scrubians.logger("error","[Scrubians] Using " + state.storageMode.name().toLowerCase() + " storage for violent NPCs this session"
+                + (state.savesBlocked ? "; " + source.getName() + " could not be read, so violent NPC changes will NOT be saved until it is fixed" : ""));
+    }
 
+    // The new-format file must not outlive a failed migration, or it would win over the source on the next start
+    private static void discardMigrationTarget(File target) {
         try {
-            String json = GSON.toJson(NPC_LIST);
-            java.nio.file.Files.write(saveFile.toPath(), json.getBytes(java.nio.charset.StandardCharsets.UTF_8));
-            Scrubians.logger("info","[Scrubians] Saved " + NPC_LIST.size() + " violent NPCs");
+            Files.deleteIfExists(target.toPath());
         } catch (IOException e) {
-            Scrubians.logger("error","[Scrubians] Error saving violent NPCs:");
-            e.printStackTrace();
+            Scrubians.logger("error","[Scrubians] Failed to remove " + target.getName() + " after the failed migration, delete it by hand: "
+                    + e.getMessage());
+        }
+    }
+
+    /**
+     * Write a JSON copy of the registry to .scrubians/export (on the I/O thread).
+     *
+     * @return the export file, or null if the registry was never initialized
+     */
+    public static File exportJson() {
+        if (saveFile == null) return null;
+        File exportFile = new File(new File(saveFile.getParentFile().getParentFile(), "export"), saveFile.getName());
+        List<ViolentNpcData> snapshot = snapshot();
+        AsyncRegistryWriter.runOnIoThread(() -> {
+            try {
+                Files.createDirectories(exportFile.toPath().getParent());
+                AsyncRegistryWriter.writeAtomically(exportFile.toPath(), encodeJson(snapshot));
+            } catch (IOException e) {
+                Scrubians.logger("error","[Scrubians] Failed to export violent NPCs: " + e.getMessage());
+            }
+        });
+        return exportFile;
+    }
+
+    public static StorageMode getStorageMode() {
+        return storageMode;
+    }
+
+    // Replace the NPC list and its id index together
+    private static void publish(List<ViolentNpcData> list) {
+        Int2ObjectMap<ViolentNpcData> index = new Int2ObjectOpenHashMap<>(list.size());
+        for (ViolentNpcData npc : list) {
+            index.put(npc.id, npc);
+        }
+        NPC_INDEX = index;
+        NPC_LIST = list;
+    }
+
+    private static void applyLoaded(LoadedState state, List<ViolentNpcData> loaded) {
+        int replayed = state.journal != null ? state.journal.replay(loaded) : 0;
+
+        for (ViolentNpcData npc : loaded) {
+            if (npc.stats == null) npc.stats = new Stats();
+            if (npc.spawnArea == null) npc.spawnArea = new SpawnArea();
+        }
+        state.npcs = loaded;
+
+        if (replayed > 0) {
+            Scrubians.logger("info","[Scrubians] Replayed " + replayed + " violent NPC journal records");
+            state.journal.compact(snapshot(loaded), state.saveFile.toPath(), ViolentNpcRegistry::encodeJson);
+        }
+    }
+
+    private static byte[] encodeJson(List<ViolentNpcData> snapshot) {
+        return GSON.toJson(snapshot).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<ViolentNpcData> snapshot() {
+        return snapshot(NPC_LIST);
+    }
+
+    private static List<ViolentNpcData> snapshot(List<ViolentNpcData> npcs) {
+        // Commands edit spawn areas and stats in place, so always copy - the list is small
+        List<ViolentNpcData> snapshot = new ArrayList<>(npcs.size());
+        for (ViolentNpcData npc : npcs) {
+            snapshot.add(npc.copy());
+        }
+        return Collections.unmodifiableList(snapshot);
+    }
+
+    /**
+     * Persist one NPC after it was edited in place: a journal record in journal
+     * mode, otherwise a coalesced full save.
+     *
+     * @param id the id
+     */
+    public static void saveNpc(int id) {
+        if (journal == null) {
+            scheduleSave();
+            return;
+        }
+        ViolentNpcData npc = NPC_INDEX.get(id);
+        if (npc != null) {
+            journal.appendPut(npc.copy());
+            compactIfNeeded();
+        }
+    }
+
+    // The snapshot is taken by tickSave once the window is up
+    private static void scheduleSave() {
+        needsSave = true;
+        if (saveDueAt == 0) {
+            saveDueAt = System.currentTimeMillis() + SAVE_COALESCE_MS;
+        }
+    }
+
+    private static void compactIfNeeded() {
+        if (journal.getRecordCount() >= ScrubiansConfig.journalCompactionThreshold) {
+            journal.compact(snapshot(), saveFile.toPath(), ViolentNpcRegistry::encodeJson);
+        }
+    }
+
+    private static void save() {
+        if (writer == null) return;
+        if (savesBlocked) {
+            Scrubians.logger("error","[Scrubians] Not saving violent NPCs - the registry failed to load (see the migration error above)");
+            return;
+        }
+        writer.submit(snapshot());
+    }
+
+    /**
+     * Save and block until the file is written (for shutdown).
+     */
+    public static void flush() {
+        if (journal != null) {
+            journal.compact(snapshot(), saveFile.toPath(), ViolentNpcRegistry::encodeJson);
+        } else {
+            forceSave();
+        }
+        if (writer != null) {
+            writer.flush();
         }
     }
 
@@ -247,8 +586,11 @@ public final class ViolentNpcRegistry {
     public static int registerNpc(String name, String entityType, SpawnArea spawnArea) {
         int id = NEXT_ID++;
         ViolentNpcData npc = new ViolentNpcData(id, name, entityType, spawnArea);
-        NPC_LIST.add(npc);
-        forceSave();
+        List<ViolentNpcData> grown = new ArrayList<>(NPC_LIST.size() + 1);
+        grown.addAll(NPC_LIST);
+        grown.add(npc);
+        publish(Collections.unmodifiableList(grown));
+        saveNpc(id);
         return id;
     }
 
@@ -258,8 +600,16 @@ public final class ViolentNpcRegistry {
      * @param id the id
      */
     public static void removeNpcById(int id) {
-        NPC_LIST.removeIf(npc -> npc.id == id);
-        forceSave();
+        List<ViolentNpcData> shrunk = new ArrayList<>(NPC_LIST);
+        if (shrunk.removeIf(npc -> npc.id == id)) {
+            publish(Collections.unmodifiableList(shrunk));
+        }
+        if (journal != null) {
+            journal.appendRemove(id);
+            compactIfNeeded();
+        } else {
+            scheduleSave();
+        }
     }
 
     /**
@@ -272,7 +622,7 @@ public final class ViolentNpcRegistry {
         for (ViolentNpcData npc : NPC_LIST) {
             if (npc.id == id) {
                 npc.stats = stats;
-                forceSave();
+                saveNpc(id);
                 return;
             }
         }
@@ -288,7 +638,7 @@ public final class ViolentNpcRegistry {
         for (ViolentNpcData npc : NPC_LIST) {
             if (npc.id == id) {
                 npc.spawnArea = area;
-                forceSave();
+                saveNpc(id);
                 return;
             }
         }
@@ -304,16 +654,53 @@ public final class ViolentNpcRegistry {
         for (ViolentNpcData npc : NPC_LIST) {
             if (npc.id == id) {
                 npc.persistent = persistent;
-                forceSave();
+                saveNpc(id);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Sets fire immune.
+     *
+     * @param id
+     * @param fireImmune
+     */
+    public static void setFireImmune(int id, boolean fireImmune) {
+        for (ViolentNpcData npc : NPC_LIST) {
+            if (npc.id == id) {
+                npc.fireImmune = fireImmune;
+                saveNpc(id);
                 return;
             }
         }
     }
 
+    /**
+     * @param id the id
+     * @return true if the NPC exists and is fire immune
+     */
+    public static boolean isFireImmune(int id) {
+        ViolentNpcData npc = NPC_INDEX.get(id);
+        return npc != null && npc.isFireImmune();
+    }
+
+    /**
+     * @param id the id
+     * @return true if a violent NPC with this id is registered
+     */
+    public static boolean contains(int id) {
+        return NPC_INDEX.containsKey(id);
+    }
+
     /**
      * Tick save.
      */
     public static void tickSave() {
+        if (saveDueAt != 0 && System.currentTimeMillis() >= saveDueAt) {
+            forceSave();
+            return;
+        }
         if (needsSave) {
             long currentTime = System.currentTimeMillis();
             if (currentTime - lastSaveTime >= SAVE_INTERVAL_MS) {
@@ -328,16 +715,17 @@ public final class ViolentNpcRegistry {
      * Force save.
      */
     public static void forceSave() {
+        saveDueAt = 0;
         save();
         needsSave = false;
         lastSaveTime = System.currentTimeMillis();
     }
 
     /**
-     * @return the all npcs
+     * @return the all npcs, as an immutable list that later registrations and removals do not affect
      */
     public static List<ViolentNpcData> getAllNpcs() {
-        return List.copyOf(NPC_LIST);
+        return NPC_LIST;
     }
 
     /**
@@ -348,14 +736,19 @@ public final class ViolentNpcRegistry {
         int realID = id.orElse(-1);
 
 
-        return NPC_LIST.stream().filter(npc -> npc.id == realID).findFirst();
+        return Optional.ofNullable(NPC_INDEX.get(realID));
     }
 
     /**
      * Clear.
      */
     public static void clear() {
-        NPC_LIST.clear();
-        forceSave();
+        publish(List.of());
+        if (journal != null) {
+            journal.appendClear();
+            compactIfNeeded();
+        } else {
+            forceSave();
+        }
     }
 }
\ No newline at end of file
@@ -1,27 +1,134 @@
 package ca.techgarage.scrubians.npcs.violent;
 
+import ca.techgarage.scrubians.Scrubians;
+import ca.techgarage.scrubians.ScrubiansScheduler;
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
 import net.minecraft.entity.Entity;
+import net.minecraft.registry.RegistryKey;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.World;
 
 import java.util.*;
 
 /**
- * Tracker for violent NPCs with hybrid mode support
+ * Tracker for violent NPCs with hybrid mode support.
+ * All state is kept per dimension; tick(world) only touches that world's entities and timers.
+ * Periodic checks run off the world's own tick counter, staggered per NPC and per world.
  */
 public class ViolentNpcTracker {
 
-    private static final Map<UUID, Integer> ENTITY_TO_NPC_ID = new HashMap<>();
-    private static final Map<Integer, List<UUID>> NPC_ID_TO_ENTITIES = new HashMap<>();
-    private static final Map<Integer, Integer> RESPAWN_TIMERS = new HashMap<>();
+    private static final Map<RegistryKey<World>, WorldState> WORLDS = new HashMap<>();
+    private static final int VERIFY_INTERVAL_TICKS = 100;
+    private static final int CLEANUP_INTERVAL_TICKS = 40;
+    private static final int RECONCILE_INTERVAL_TICKS = 20 * 60;
+
+    private static final class WorldState {
+        final Map<UUID, Integer> entityToNpcId = new HashMap<>();
+        final Map<Integer, List<UUID>> npcIdToEntities = new HashMap<>();
+        final Map<Integer, Integer> respawnTimers = new HashMap<>();
+        // Live population, kept from entity load/unload and deaths; reconciled every minute
+        final Population population = new Population();
+        // Ticks this world has been ticked; unlike the time of day it never stops or jumps
+        long ticks;
+        // Offset so different worlds do not run their periodic work on the same tick
+        final int phase;
+
+        WorldState(RegistryKey<World> key) {
+            this.phase = key.getValue().hashCode();
+        }
+    }
+
+    private static final class Population {
+        // npcId -> alive AI/standard entities (display halves of hybrids are not counted)
+        final Int2IntMap alive = new Int2IntOpenHashMap();
+        // counted entity -> npcId it was counted under, so nothing is counted or removed twice
+        final Reference2IntMap<Entity> counted = new Reference2IntOpenHashMap<>();
+
+        void add(Entity entity, int npcId) {
+            if (counted.containsKey(entity)) return;
+            counted.put(entity, npcId);
+            alive.mergeInt(npcId, 1, Integer::sum);
+        }
+
+        void remove(Entity entity) {
+            if (!counted.containsKey(entity)) return;
+            int npcId = counted.removeInt(entity);
+            int left = alive.get(npcId) - 1;
+            if (left > 0) {
+                alive.put(npcId, left);
+            } else {
+                alive.remove(npcId);
+            }
+        }
+
+        void clear() {
+            alive.clear();
+            counted.clear();
+        }
+    }
+
+    private static WorldState state(ServerWorld world) {
+        return WORLDS.computeIfAbsent(world.getRegistryKey(), WorldState::new);
+    }
 
     /**
      * Register entity
      */
-    public static void registerEntity(Entity entity, int npcId) {
+    public static void registerEntity(ServerWorld world, Entity entity, int npcId) {
+        WorldState state = state(world);
         UUID uuid = entity.getUuid();
-        ENTITY_TO_NPC_ID.put(uuid, npcId);
-        NPC_ID_TO_ENTITIES.computeIfAbsent(npcId, k -> new ArrayList<>()).add(uuid);
+        state.entityToNpcId.put(uuid, npcId);
+        state.npcIdToEntities.computeIfAbsent(npcId, k -> new ArrayList<>()).add(uuid);
+    }
+
+    /**
+     * Count a violent NPC entity that entered the world (spawned or loaded with its chunk)
+     */
+    public static void onEntityLoad(Entity entity, ServerWorld world) {
+        if (isCountable(entity)) {
+            state(world).population.add(entity, ViolentNpcEntity.getNpcId(entity).get());
+        }
+    }
+
+    /**
+     * Stop counting an entity that left the world (discarded, despawned or unloaded with its chunk)
+     */
+    public static void onEntityUnload(Entity entity, ServerWorld world) {
+        WorldState state = WORLDS.get(world.getRegistryKey());
+        if (state != null) {
+            state.population.remove(entity);
+        }
+    }
+
+    private static boolean isCountable(Entity entity) {
+        return entity.isAlive()
+                && ViolentNpcEntity.isViolentNpc(entity)
+                && !ViolentNpcEntity.isDisplayEntity(entity)
+                && ViolentNpcEntity.getNpcId(entity).isPresent();
+    }
+
+    /**
+     * Recount the world's violent NPCs from scratch and fix any drift in the live counters
+     */
+    public static void reconcile(ServerWorld world) {
+        Population population = state(world).population;
+        Int2IntMap before = new Int2IntOpenHashMap(population.alive);
+
+        population.clear();
+        for (Entity entity : world.iterateEntities()) {
+            if (isCountable(entity)) {
+                population.add(entity, ViolentNpcEntity.getNpcId(entity).get());
+            }
+        }
+
+        if (!before.equals(population.alive)) {
+            Scrubians.logger("warning", "[Scrubians] Violent NPC counts in " + world.getRegistryKey().getValue()
+                    + " drifted, corrected " + before + " -> " + population.alive);
+        }
     }
 
     /**
@@ -58,9 +165,10 @@ public class ViolentNpcTracker {
      * Despawn all entities for an NPC
      */
     public static void despawn(ServerWorld world, int npcId) {
-        RESPAWN_TIMERS.put(npcId, 20 * 10); // respawn in 10s
+        WorldState state = state(world);
+        state.respawnTimers.put(npcId, 20 * 10); // respawn in 10s
 
-        List<UUID> entities = NPC_ID_TO_ENTITIES.get(npcId);
+        List<UUID> entities = state.npcIdToEntities.get(npcId);
         if (entities != null) {
             for (UUID uuid : new ArrayList<>(entities)) {
                 Entity entity = world.getEntity(uuid);
@@ -85,8 +193,8 @@ public class ViolentNpcTracker {
             }
         }
 
-        ENTITY_TO_NPC_ID.entrySet().removeIf(e -> e.getValue() == npcId);
-        NPC_ID_TO_ENTITIES.remove(npcId);
+        state.entityToNpcId.entrySet().removeIf(e -> e.getValue() == npcId);
+        state.npcIdToEntities.remove(npcId);
     }
 
     /**
@@ -112,18 +220,16 @@ public class ViolentNpcTracker {
             }
         }
 
-        ENTITY_TO_NPC_ID.clear();
-        NPC_ID_TO_ENTITIES.clear();
-        RESPAWN_TIMERS.clear();
-        ViolentNpcEntity.clearHybridTracking();
+        clear(world);
     }
 
     /**
      * Unregister entity
      */
-    public static void unregisterEntity(UUID entityUuid, int npcId) {
-        ENTITY_TO_NPC_ID.remove(entityUuid);
-        List<UUID> entities = NPC_ID_TO_ENTITIES.get(npcId);
+    public static void unregisterEntity(ServerWorld world, UUID entityUuid, int npcId) {
+        WorldState state = state(world);
+        state.entityToNpcId.remove(entityUuid);
+        List<UUID> entities = state.npcIdToEntities.get(npcId);
         if (entities != null) {
             entities.remove(entityUuid);
         }
@@ -133,9 +239,15 @@ public class ViolentNpcTracker {
      * Notify NPC death
      */
     public static void notifyNpcDeath(ServerWorld world, int npcId, UUID entityUuid) {
+        WorldState state = state(world);
         // Get the entity to check if it's hybrid mode
         Entity deadEntity = world.getEntity(entityUuid);
 
+        // Dead entities stay loaded for their death animation - stop counting them now
+        if (deadEntity != null) {
+            state.population.remove(deadEntity);
+        }
+
         // If this is a display entity death, we need to kill the AI entity too
         if (deadEntity != null && ViolentNpcEntity.isDisplayEntity(deadEntity)) {
             Entity aiEntity = ViolentNpcEntity.getAiEntity(world, deadEntity);
@@ -151,7 +263,7 @@ public class ViolentNpcTracker {
             }
         }
 
-        unregisterEntity(entityUuid, npcId);
+        unregisterEntity(world, entityUuid, npcId);
 
         Optional<ViolentNpcRegistry.ViolentNpcData> npcDataOpt =
                 ViolentNpcRegistry.getNpcById(Optional.of(npcId));
@@ -164,8 +276,8 @@ public class ViolentNpcTracker {
         int currentCount = getCurrentCount(world, npcId);
         int needed = npcData.spawnArea.maxCount - currentCount;
 
-        if (needed > 0 && !RESPAWN_TIMERS.containsKey(npcId)) {
-            RESPAWN_TIMERS.put(npcId, npcData.spawnArea.respawnDelayTicks);
+        if (needed > 0 && !state.respawnTimers.containsKey(npcId)) {
+            state.respawnTimers.put(npcId, npcData.spawnArea.respawnDelayTicks);
         }
     }
 
@@ -173,6 +285,9 @@ public class ViolentNpcTracker {
      * Main tick function
      */
     public static void tick(ServerWorld world) {
+        WorldState state = state(world);
+        state.ticks++;
+
         if (world.getPlayers().isEmpty()) {
             return;
         }
@@ -181,7 +296,7 @@ public class ViolentNpcTracker {
         ViolentNpcEntity.tickHybridNpcs(world);
 
         // Tick respawn timers
-        Iterator<Map.Entry<Integer, Integer>> it = RESPAWN_TIMERS.entrySet().iterator();
+        Iterator<Map.Entry<Integer, Integer>> it = state.respawnTimers.entrySet().iterator();
         List<Integer> toSpawn = new ArrayList<>();
 
         while (it.hasNext()) {
@@ -200,48 +315,55 @@ public class ViolentNpcTracker {
             spawnNpc(world, npcId);
         }
 
-        // Periodic spawn verification
-        if (world.getTimeOfDay() % 100 == 0) {
-            for (var npcData : ViolentNpcRegistry.getAllNpcs()) {
-                if (npcData.spawnArea == null) continue;
-                if (RESPAWN_TIMERS.containsKey(npcData.id)) continue;
-
-                int current = getCurrentCount(world, npcData.id);
-                int needed = npcData.spawnArea.maxCount - current;
-
-                for (int i = 0; i < needed; i++) {
-                    if (!spawnNpc(world, npcData.id)) break;
-                }
+        // Each NPC definition is verified and cleaned up on its own phase of the interval,
+        // so the work is spread evenly instead of landing on one tick
+        for (var npcData : ViolentNpcRegistry.getAllNpcs()) {
+            if (isDue(state, npcData.id, VERIFY_INTERVAL_TICKS)) {
+                verifySpawn(world, state, npcData);
             }
         }
+        cleanupDeadEntities(world, state);
 
-        // Cleanup
-        if (world.getTimeOfDay() % 40 == 0) {
-            cleanupDeadEntities(world);
+        if (isDue(state, 0, RECONCILE_INTERVAL_TICKS)) {
+            reconcile(world);
         }
     }
 
+    private static boolean isDue(WorldState state, int npcId, int interval) {
+        return Math.floorMod(state.ticks + state.phase + npcId, interval) == 0;
+    }
+
     /**
-     * Get current count - only counts AI entities (or standard entities)
-     * Display entities in hybrid mode are not counted separately
+     * Top the NPC's spawn area up to its max count
      */
-    private static int getCurrentCount(ServerWorld world, int npcId) {
-        int count = 0;
-
-        for (Entity entity : world.iterateEntities()) {
-            if (!entity.isAlive()) continue;
-            if (!ViolentNpcEntity.isViolentNpc(entity)) continue;
+    private static void verifySpawn(ServerWorld world, WorldState state, ViolentNpcRegistry.ViolentNpcData npcData) {
+        if (npcData.spawnArea == null) return;
+        if (state.respawnTimers.containsKey(npcData.id)) return;
 
-            // Skip display entities - only count AI entities or standard entities
-            if (ViolentNpcEntity.isDisplayEntity(entity)) continue;
+        int current = getCurrentCount(world, npcData.id);
+        int needed = npcData.spawnArea.maxCount - current;
 
-            Optional<Integer> entityNpcId = ViolentNpcEntity.getNpcId(entity);
-            if (entityNpcId.isPresent() && entityNpcId.get() == npcId) {
-                count++;
-            }
+        for (int i = 0; i < needed; i++) {
+            if (!spawnNpc(world, npcData.id)) break;
         }
+    }
+
+    /**
+     * Register the tracker's periodic work with the scheduler
+     */
+    public static void registerTasks() {
+        ScrubiansScheduler.register("violent-tick", 1, server -> {
+            for (ServerWorld world : server.getWorlds()) tick(world);
+        });
+    }
 
-        return count;
+    /**
+     * Get current count - only counts AI entities (or standard entities)
+     * Display entities in hybrid mode are not counted separately
+     */
+    public static int getCurrentCount(ServerWorld world, int npcId) {
+        WorldState state = WORLDS.get(world.getRegistryKey());
+        return state == null ? 0 : state.population.alive.get(npcId);
     }
 
     /**
@@ -265,13 +387,13 @@ public class ViolentNpcTracker {
         );
 
         if (entity != null) {
-            registerEntity(entity, npcId);
+            registerEntity(world, entity, npcId);
 
             // If hybrid mode, also register the display entity
             if (ViolentNpcEntity.isAiEntity(entity)) {
                 Entity displayEntity = ViolentNpcEntity.getDisplayEntity(world, entity);
                 if (displayEntity != null) {
-                    registerEntity(displayEntity, npcId);
+                    registerEntity(world, displayEntity, npcId);
                 }
             }
 
@@ -282,24 +404,20 @@ public class ViolentNpcTracker {
     }
 
     /**
-     * Cleanup dead entities
+     * Forget dead entities of the NPCs whose cleanup phase is this tick
      */
-    private static void cleanupDeadEntities(ServerWorld world) {
-        List<UUID> toRemove = new ArrayList<>();
+    private static void cleanupDeadEntities(ServerWorld world, WorldState state) {
+        for (Map.Entry<Integer, List<UUID>> entry : state.npcIdToEntities.entrySet()) {
+            if (!isDue(state, entry.getKey(), CLEANUP_INTERVAL_TICKS)) continue;
 
-        for (UUID uuid : ENTITY_TO_NPC_ID.keySet()) {
-            Entity entity = world.getEntity(uuid);
-            if (entity == null || !entity.isAlive()) {
-                toRemove.add(uuid);
-            }
-        }
-
-        for (UUID uuid : toRemove) {
-            Integer npcId = ENTITY_TO_NPC_ID.remove(uuid);
-            if (npcId != null) {
-                List<UUID> list = NPC_ID_TO_ENTITIES.get(npcId);
-                if (list != null) list.remove(uuid);
-            }
+            entry.getValue().removeIf(uuid -> {
+                Entity entity = world.getEntity(uuid);
+                if (entity == null || !entity.isAlive()) {
+                    state.entityToNpcId.remove(uuid);
+                    return true;
+                }
+                return false;
+            });
         }
     }
 
@@ -307,24 +425,32 @@ public class ViolentNpcTracker {
      * Rebuild from world
      */
     public static void rebuildFromWorld(ServerWorld world) {
-        ENTITY_TO_NPC_ID.clear();
-        NPC_ID_TO_ENTITIES.clear();
+        WorldState state = state(world);
+        state.entityToNpcId.clear();
+        state.npcIdToEntities.clear();
+        reconcile(world);
 
         for (Entity entity : world.iterateEntities()) {
             if (ViolentNpcEntity.isViolentNpc(entity)) {
                 ViolentNpcEntity.getNpcId(entity)
-                        .ifPresent(id -> registerEntity(entity, id));
+                        .ifPresent(id -> registerEntity(world, entity, id));
             }
         }
     }
 
     /**
-     * Clear all data
+     * Clear all data, in every world
      */
     public static void clear() {
-        ENTITY_TO_NPC_ID.clear();
-        NPC_ID_TO_ENTITIES.clear();
-        RESPAWN_TIMERS.clear();
+        WORLDS.clear();
         ViolentNpcEntity.clearHybridTracking();
     }
+
+    /**
+     * Clear all data of one world
+     */
+    public static void clear(ServerWorld world) {
+        WORLDS.remove(world.getRegistryKey());
+        ViolentNpcEntity.clearHybridTracking(world);
+    }
 }
\ No newline at end of file
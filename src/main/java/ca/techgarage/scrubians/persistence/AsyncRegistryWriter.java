@@ -0,0 +1,144 @@
+package ca.techgarage.scrubians.persistence;
+
+import ca.techgarage.scrubians.Scrubians;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Write-behind saver for registry files.
+ *
+ * The tick thread hands over an immutable snapshot, which is all it pays for.
+ * Snapshots submitted while a write is pending replace each other, so a burst
+ * of edits becomes a single write. Encoding and the temp file + atomic rename
+ * happen on the shared Scrubians I/O thread.
+ *
+ * @param <T> the record type stored in the registry
+ */
+public final class AsyncRegistryWriter<T> {
+
+    private static final long COALESCE_DELAY_MS = 250;
+
+    // One thread for all registries keeps writes (and later journal appends) strictly ordered
+    private static final ScheduledExecutorService IO_EXECUTOR = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Scrubians-IO");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final String label;
+    private final Path target;
+    private final Function<List<T>, byte[]> encoder;
+
+    private final AtomicReference<List<T>> pending = new AtomicReference<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private volatile long lastWriteMicros = 0;
+
+    /**
+     * @param label   name used in log messages
+     * @param target  file to (atomically) replace on each write
+     * @param encoder turns a snapshot into file bytes, runs on the I/O thread
+     */
+    public AsyncRegistryWriter(String label, Path target, Function<List<T>, byte[]> encoder) {
+        this.label = label;
+        this.target = target;
+        this.encoder = encoder;
+    }
+
+    /**
+     * Queue a snapshot for writing. Must be immutable - it is read from the I/O thread.
+     */
+    public void submit(List<T> snapshot) {
+        submitted.incrementAndGet();
+        pending.set(snapshot);
+        if (scheduled.compareAndSet(false, true)) {
+            IO_EXECUTOR.schedule(this::drain, COALESCE_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Block until every snapshot submitted so far is on disk (used on shutdown).
+     */
+    public void flush() {
+        try {
+            IO_EXECUTOR.submit(this::drain).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            Scrubians.logger("error", "[Scrubians] Failed to flush " + label + ": " + e.getCause());
+        }
+    }
+
+    private void drain() {
+        // Clear the flag before taking the snapshot so a concurrent submit schedules a new drain
+        scheduled.set(false);
+        List<T> snapshot = pending.getAndSet(null);
+        if (snapshot == null) return;
+
+        long start = System.nanoTime();
+        try {
+            writeAtomically(target, encoder.apply(snapshot));
+            written.incrementAndGet();
+            lastWriteMicros = (System.nanoTime() - start) / 1000;
+            Scrubians.logger("info", "[Scrubians] Saved " + snapshot.size() + " " + label + " to: " + target
+                    + " (" + lastWriteMicros + " µs)");
+        } catch (Exception e) {
+            Scrubians.logger("error", "[Scrubians] Error saving " + label + ":");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Number of snapshots handed over by the tick thread.
+     */
+    public long getSubmittedCount() {
+        return submitted.get();
+    }
+
+    /**
+     * Number of writes that actually hit the disk (submitted minus coalesced).
+     */
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    public long getLastWriteMicros() {
+        return lastWriteMicros;
+    }
+
+    /**
+     * Run a task on the shared I/O thread, after everything queued before it.
+     */
+    public static void runOnIoThread(Runnable task) {
+        IO_EXECUTOR.execute(task);
+    }
+
+    /**
+     * Write to a sibling temp file and rename it over the target, so readers
+     * (and crashes) only ever see the old or the new file, never half of one.
+     */
+    public static void writeAtomically(Path target, byte[] data) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.write(temp, data);
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
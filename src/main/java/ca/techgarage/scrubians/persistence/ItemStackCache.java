@@ -0,0 +1,187 @@
+package ca.techgarage.scrubians.persistence;
+
+import com.google.gson.JsonElement;
+import com.mojang.serialization.DynamicOps;
+import com.mojang.serialization.JsonOps;
+import it.unimi.dsi.fastutil.Hash;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenCustomHashMap;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
+import net.minecraft.nbt.NbtOps;
+import net.minecraft.nbt.StringNbtReader;
+import net.minecraft.registry.RegistryWrapper;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Encode/decode cache for the item stacks stored in NPC trades.
+ *
+ * Shops repeat the same few stacks (emerald and diamond costs) across hundreds of
+ * trades. Encodings are keyed by stack content, so an unchanged stack is encoded once
+ * however many trades and saves use it, and a stack edited in place simply misses.
+ * Decoding is interned the same way, but every caller gets its own copy.
+ * A stack that cannot be decoded throws rather than turning into an empty stack,
+ * so callers can keep the stored form instead of saving the item away.
+ *
+ * Used from the server thread, the I/O thread and the trade decode pool.
+ */
+public final class ItemStackCache {
+
+    // Distinct trade items are few; the cap only guards against pathological data
+    private static final int MAX_ENTRIES = 4096;
+
+    private static final Hash.Strategy<ItemStack> STACK_CONTENT = new Hash.Strategy<>() {
+        @Override
+        public int hashCode(ItemStack stack) {
+            return stack == null ? 0 : 31 * ItemStack.hashCode(stack) + stack.getCount();
+        }
+
+        @Override
+        public boolean equals(ItemStack a, ItemStack b) {
+            if (a == b) return true;
+            if (a == null || b == null) return false;
+            return ItemStack.areEqual(a, b);
+        }
+    };
+
+    // Keys are private copies, values must never be mutated by callers
+    private static final Map<ItemStack, JsonElement> JSON_ENCODED = new Object2ObjectOpenCustomHashMap<>(STACK_CONTENT);
+    private static final Map<ItemStack, NbtCompound> NBT_ENCODED = new Object2ObjectOpenCustomHashMap<>(STACK_CONTENT);
+    // Keyed by the encoded form (JsonElement, SNBT string or NbtCompound - all compare structurally)
+    private static final Map<Object, ItemStack> DECODED = new ConcurrentHashMap<>();
+
+    // Registry-aware ops, so components that refer to registry entries (enchantments, ...) round-trip
+    private static volatile DynamicOps<JsonElement> jsonOps = JsonOps.INSTANCE;
+    private static volatile DynamicOps<NbtElement> nbtOps = NbtOps.INSTANCE;
+
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+
+    private ItemStackCache() {
+    }
+
+    /**
+     * Use the server's registries for every encode and decode from now on. Call before the NPC
+     * registries are read; stacks cached with the previous registries are dropped.
+     */
+    public static void setRegistries(RegistryWrapper.WrapperLookup registries) {
+        jsonOps = registries.getOps(JsonOps.INSTANCE);
+        nbtOps = registries.getOps(NbtOps.INSTANCE);
+        synchronized (JSON_ENCODED) {
+            JSON_ENCODED.clear();
+        }
+        synchronized (NBT_ENCODED) {
+            NBT_ENCODED.clear();
+        }
+        DECODED.clear();
+    }
+
+    /**
+     * @return the stack as ItemStack.CODEC JSON; shared, do not modify
+     */
+    public static JsonElement encodeJson(ItemStack stack) {
+        synchronized (JSON_ENCODED) {
+            JsonElement cached = JSON_ENCODED.get(stack);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
+            }
+        }
+        misses.incrementAndGet();
+        JsonElement json = ItemStack.CODEC.encodeStart(jsonOps, stack).getOrThrow();
+        synchronized (JSON_ENCODED) {
+            if (JSON_ENCODED.size() >= MAX_ENTRIES) JSON_ENCODED.clear();
+            JSON_ENCODED.put(stack.copy(), json);
+        }
+        return json;
+    }
+
+    /**
+     * @return the stack as ItemStack.CODEC NBT; shared, do not modify
+     */
+    public static NbtCompound encodeNbt(ItemStack stack) {
+        synchronized (NBT_ENCODED) {
+            NbtCompound cached = NBT_ENCODED.get(stack);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
+            }
+        }
+        misses.incrementAndGet();
+        NbtCompound nbt = (NbtCompound) ItemStack.CODEC.encodeStart(nbtOps, stack).getOrThrow();
+        synchronized (NBT_ENCODED) {
+            if (NBT_ENCODED.size() >= MAX_ENTRIES) NBT_ENCODED.clear();
+            NBT_ENCODED.put(stack.copy(), nbt);
+        }
+        return nbt;
+    }
+
+    /**
+     * @throws IllegalStateException if the stack cannot be decoded
+     */
+    public static ItemStack decodeJson(JsonElement json) {
+        ItemStack template = DECODED.get(json);
+        if (template == null) {
+            misses.incrementAndGet();
+            template = ItemStack.CODEC.parse(jsonOps, json).getOrThrow();
+            remember(json, template);
+        } else {
+            hits.incrementAndGet();
+        }
+        return template.copy();
+    }
+
+    /**
+     * Decode the SNBT strings written by older versions ("nbt" property).
+     *
+     * @throws IllegalStateException if the stack cannot be decoded
+     */
+    public static ItemStack decodeSnbt(String snbt) {
+        ItemStack template = DECODED.get(snbt);
+        if (template == null) {
+            misses.incrementAndGet();
+            NbtCompound nbt;
+            try {
+                nbt = StringNbtReader.readCompound(snbt);
+            } catch (Exception e) {
+                throw new IllegalStateException("Invalid item SNBT: " + e.getMessage(), e);
+            }
+            template = ItemStack.CODEC.parse(nbtOps, nbt).getOrThrow();
+            remember(snbt, template);
+        } else {
+            hits.incrementAndGet();
+        }
+        return template.copy();
+    }
+
+    /**
+     * @throws IllegalStateException if the stack cannot be decoded
+     */
+    public static ItemStack decodeNbt(NbtCompound nbt) {
+        ItemStack template = DECODED.get(nbt);
+        if (template == null) {
+            misses.incrementAndGet();
+            template = ItemStack.CODEC.parse(nbtOps, nbt).getOrThrow();
+            remember(nbt, template);
+        } else {
+            hits.incrementAndGet();
+        }
+        return template.copy();
+    }
+
+    private static void remember(Object encoded, ItemStack template) {
+        if (DECODED.size() >= MAX_ENTRIES) DECODED.clear();
+        DECODED.putIfAbsent(encoded, template);
+    }
+
+    public static long getHits() {
+        return hits.get();
+    }
+
+    public static long getMisses() {
+        return misses.get();
+    }
+}
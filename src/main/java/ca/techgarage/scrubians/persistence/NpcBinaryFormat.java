@@ -0,0 +1,439 @@
+package ca.techgarage.scrubians.persistence;
+
+import ca.techgarage.scrubians.npcs.NpcRegistry;
+import ca.techgarage.scrubians.npcs.TradeData;
+import ca.techgarage.scrubians.npcs.violent.ViolentNpcRegistry;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.NbtSizeTracker;
+import net.minecraft.util.math.Vec3d;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary encoding of the NPC registries.
+ *
+ * Layout: int magic, short version, byte kind, int record count, then the records
+ * field by field. Strings are length-prefixed UTF-8 (-1 for null) and item stacks
+ * are written as binary NBT instead of SNBT text. Bump {@link #VERSION} when the
+ * record layout changes and keep reading the older versions.
+ *
+ * Versions: 1 - initial layout; 2 - NPC headers carry the change version;
+ * 3 - violent NPCs carry the fire immune flag; 4 - NPC headers carry the home dimension.
+ */
+public final class NpcBinaryFormat {
+
+    public static final int MAGIC = 0x53435242; // "SCRB"
+    public static final short VERSION = 4;
+
+    public static final byte KIND_NPC = 1;
+    public static final byte KIND_VIOLENT = 2;
+    public static final byte KIND_NPC_INDEX = 3;
+    public static final byte KIND_NPC_REGION = 4;
+
+    private NpcBinaryFormat() {
+    }
+
+    private record Header(short version, int count) {
+    }
+
+    // ---- Standard NPCs ----
+
+    public static byte[] encodeNpcs(List<NpcRegistry.NpcData> npcs) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + npcs.size() * 128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeHeader(out, KIND_NPC, npcs.size());
+            for (NpcRegistry.NpcData npc : npcs) {
+                writeNpc(out, npc);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static List<NpcRegistry.NpcData> readNpcs(Path file) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 64 * 1024)) {
+            return decodeNpcs(in);
+        }
+    }
+
+    public static List<NpcRegistry.NpcData> decodeNpcs(byte[] data) throws IOException {
+        return decodeNpcs(new ByteArrayInputStream(data));
+    }
+
+    private static List<NpcRegistry.NpcData> decodeNpcs(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(stream);
+        Header header = readHeader(in, KIND_NPC);
+        List<NpcRegistry.NpcData> npcs = new ArrayList<>(header.count());
+        for (int i = 0; i < header.count(); i++) {
+            npcs.add(readNpc(in, header.version()));
+        }
+        return npcs;
+    }
+
+    private static void writeNpc(DataOutput out, NpcRegistry.NpcData npc) throws IOException {
+        writeNpcHeader(out, npc);
+        writeNpcPayload(out, npc);
+    }
+
+    private static NpcRegistry.NpcData readNpc(DataInput in, short version) throws IOException {
+        NpcRegistry.NpcData npc = readNpcHeader(in, version);
+        readNpcPayload(in, npc);
+        return npc;
+    }
+
+    // ---- Sharded NPCs: resident header index + per-region payload files ----
+
+    /**
+     * Encode only the always-resident fields (id, name, position, skin) of every NPC.
+     */
+    public static byte[] encodeIndex(List<NpcRegistry.NpcData> npcs) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + npcs.size() * 48);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeHeader(out, KIND_NPC_INDEX, npcs.size());
+            for (NpcRegistry.NpcData npc : npcs) {
+                writeNpcHeader(out, npc);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @return NPCs with header fields only (empty path, no dialogue or trades)
+     */
+    public static List<NpcRegistry.NpcData> readIndex(Path file) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 64 * 1024)) {
+            DataInputStream data = new DataInputStream(in);
+            Header header = readHeader(data, KIND_NPC_INDEX);
+            List<NpcRegistry.NpcData> npcs = new ArrayList<>(header.count());
+            for (int i = 0; i < header.count(); i++) {
+                npcs.add(readNpcHeader(data, header.version()));
+            }
+            return npcs;
+        }
+    }
+
+    /**
+     * Encode the payloads (path, dialogue, trades) of the NPCs in one region, keyed by id.
+     */
+    public static byte[] encodeRegion(List<NpcRegistry.NpcData> npcs) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + npcs.size() * 128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeHeader(out, KIND_NPC_REGION, npcs.size());
+            for (NpcRegistry.NpcData npc : npcs) {
+                out.writeInt(npc.id);
+                writeNpcPayload(out, npc);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @return payload carriers: only id, path, dialogue and tradeData are set
+     */
+    public static List<NpcRegistry.NpcData> readRegion(Path file) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 64 * 1024)) {
+            DataInputStream data = new DataInputStream(in);
+            Header header = readHeader(data, KIND_NPC_REGION);
+            List<NpcRegistry.NpcData> payloads = new ArrayList<>(header.count());
+            for (int i = 0; i < header.count(); i++) {
+                NpcRegistry.NpcData payload = new NpcRegistry.NpcData(data.readInt(), null, Vec3d.ZERO);
+                readNpcPayload(data, payload);
+                payloads.add(payload);
+            }
+            return payloads;
+        }
+    }
+
+    private static void writeNpcHeader(DataOutput out, NpcRegistry.NpcData npc) throws IOException {
+        out.writeInt(npc.id);
+        writeString(out, npc.name);
+        out.writeDouble(npc.x);
+        out.writeDouble(npc.y);
+        out.writeDouble(npc.z);
+        writeString(out, npc.skin);
+        out.writeLong(npc.version);
+        writeString(out, npc.dimension);
+    }
+
+    private static NpcRegistry.NpcData readNpcHeader(DataInput in, short version) throws IOException {
+        int id = in.readInt();
+        String name = readString(in);
+        double x = in.readDouble();
+        double y = in.readDouble();
+        double z = in.readDouble();
+        NpcRegistry.NpcData npc = new NpcRegistry.NpcData(id, name, new Vec3d(x, y, z));
+        npc.skin = readString(in);
+        if (version >= 2) {
+            npc.version = in.readLong();
+        }
+        if (version >= 4) {
+            npc.dimension = readString(in);
+        }
+        return npc;
+    }
+
+    private static void writeNpcPayload(DataOutput out, NpcRegistry.NpcData npc) throws IOException {
+        List<NpcRegistry.Waypoint> path = npc.path;
+        int pathSize = path != null ? path.size() : 0;
+        out.writeInt(pathSize);
+        for (int i = 0; i < pathSize; i++) {
+            NpcRegistry.Waypoint waypoint = path.get(i);
+            out.writeDouble(waypoint.x);
+            out.writeDouble(waypoint.y);
+            out.writeDouble(waypoint.z);
+            out.writeInt(waypoint.waitTicks);
+        }
+
+        NpcRegistry.DialogueData dialogue = npc.dialogue;
+        out.writeBoolean(dialogue != null);
+        if (dialogue != null) {
+            int pageCount = dialogue.pages != null ? dialogue.pages.size() : 0;
+            out.writeInt(pageCount);
+            for (int i = 0; i < pageCount; i++) {
+                NpcRegistry.DialogueData.DialoguePageData page = dialogue.pages.get(i);
+                writeString(out, page.text);
+                int optionCount = page.options != null ? page.options.size() : 0;
+                out.writeInt(optionCount);
+                for (int j = 0; j < optionCount; j++) {
+                    NpcRegistry.DialogueData.DialogueOptionData option = page.options.get(j);
+                    writeString(out, option.text);
+                    writeString(out, option.action);
+                }
+            }
+        }
+
+        TradeData tradeData = npc.tradeData;
+        out.writeBoolean(tradeData != null);
+        if (tradeData != null) {
+            int tradeCount = tradeData.trades != null ? tradeData.trades.size() : 0;
+            out.writeInt(tradeCount);
+            for (int i = 0; i < tradeCount; i++) {
+                TradeData.Trade trade = tradeData.trades.get(i);
+                writeStack(out, trade.result);
+                writeStack(out, trade.firstCost);
+                writeStack(out, trade.secondCost);
+                out.writeInt(trade.maxUses);
+                out.writeInt(trade.uses);
+                out.writeInt(trade.experience);
+            }
+        }
+    }
+
+    private static void readNpcPayload(DataInput in, NpcRegistry.NpcData npc) throws IOException {
+        int pathSize = in.readInt();
+        for (int i = 0; i < pathSize; i++) {
+            npc.path.add(new NpcRegistry.Waypoint(in.readDouble(), in.readDouble(), in.readDouble(), in.readInt()));
+        }
+
+        if (in.readBoolean()) {
+            NpcRegistry.DialogueData dialogue = new NpcRegistry.DialogueData();
+            int pageCount = in.readInt();
+            for (int i = 0; i < pageCount; i++) {
+                NpcRegistry.DialogueData.DialoguePageData page = new NpcRegistry.DialogueData.DialoguePageData(readString(in));
+                int optionCount = in.readInt();
+                for (int j = 0; j < optionCount; j++) {
+                    page.options.add(new NpcRegistry.DialogueData.DialogueOptionData(readString(in), readString(in)));
+                }
+                dialogue.pages.add(page);
+            }
+            npc.dialogue = dialogue;
+        }
+
+        if (in.readBoolean()) {
+            TradeData tradeData = new TradeData();
+            int tradeCount = in.readInt();
+            for (int i = 0; i < tradeCount; i++) {
+                TradeData.Trade trade = new TradeData.Trade();
+                trade.result = readStack(in);
+                trade.firstCost = readStack(in);
+                trade.secondCost = readStack(in);
+                trade.maxUses = in.readInt();
+                trade.uses = in.readInt();
+                trade.experience = in.readInt();
+                tradeData.trades.add(trade);
+            }
+            npc.tradeData = tradeData;
+        }
+    }
+
+    // ---- Violent NPCs ----
+
+    public static byte[] encodeViolentNpcs(List<ViolentNpcRegistry.ViolentNpcData> npcs) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + npcs.size() * 128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeHeader(out, KIND_VIOLENT, npcs.size());
+            for (ViolentNpcRegistry.ViolentNpcData npc : npcs) {
+                writeViolentNpc(out, npc);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static List<ViolentNpcRegistry.ViolentNpcData> readViolentNpcs(Path file) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 64 * 1024)) {
+            DataInputStream data = new DataInputStream(in);
+            Header header = readHeader(data, KIND_VIOLENT);
+            List<ViolentNpcRegistry.ViolentNpcData> npcs = new ArrayList<>(header.count());
+            for (int i = 0; i < header.count(); i++) {
+                npcs.add(readViolentNpc(data, header.version()));
+            }
+            return npcs;
+        }
+    }
+
+    private static void writeViolentNpc(DataOutput out, ViolentNpcRegistry.ViolentNpcData npc) throws IOException {
+        out.writeInt(npc.id);
+        writeString(out, npc.name);
+        writeString(out, npc.entityType);
+        out.writeBoolean(npc.persistent);
+
+        ViolentNpcRegistry.SpawnArea area = npc.spawnArea;
+        out.writeBoolean(area != null);
+        if (area != null) {
+            out.writeDouble(area.minX);
+            out.writeDouble(area.minY);
+            out.writeDouble(area.minZ);
+            out.writeDouble(area.maxX);
+            out.writeDouble(area.maxY);
+            out.writeDouble(area.maxZ);
+            out.writeInt(area.maxCount);
+            out.writeInt(area.respawnDelayTicks);
+        }
+
+        ViolentNpcRegistry.Stats stats = npc.stats;
+        out.writeBoolean(stats != null);
+        if (stats != null) {
+            out.writeDouble(stats.health);
+            out.writeDouble(stats.attackDamage);
+            out.writeDouble(stats.speed);
+            out.writeDouble(stats.knockbackResistance);
+            out.writeDouble(stats.followRange);
+            out.writeBoolean(stats.glowing);
+        }
+        out.writeBoolean(npc.isFireImmune());
+    }
+
+    private static ViolentNpcRegistry.ViolentNpcData readViolentNpc(DataInput in, short version) throws IOException {
+        int id = in.readInt();
+        String name = readString(in);
+        String entityType = readString(in);
+        boolean persistent = in.readBoolean();
+
+        ViolentNpcRegistry.SpawnArea area = null;
+        if (in.readBoolean()) {
+            area = new ViolentNpcRegistry.SpawnArea();
+            area.minX = in.readDouble();
+            area.minY = in.readDouble();
+            area.minZ = in.readDouble();
+            area.maxX = in.readDouble();
+            area.maxY = in.readDouble();
+            area.maxZ = in.readDouble();
+            area.maxCount = in.readInt();
+            area.respawnDelayTicks = in.readInt();
+        }
+
+        ViolentNpcRegistry.ViolentNpcData npc = new ViolentNpcRegistry.ViolentNpcData(id, name, entityType, area);
+        npc.persistent = persistent;
+        npc.stats = null;
+        if (in.readBoolean()) {
+            ViolentNpcRegistry.Stats stats = new ViolentNpcRegistry.Stats(
+                    in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble());
+            stats.glowing = in.readBoolean();
+            npc.stats = stats;
+        }
+        // Older files predate the flag; every violent NPC was fire immune then
+        npc.fireImmune = version < 3 || in.readBoolean();
+        return npc;
+    }
+
+    // ---- Shared ----
+
+    private static void writeHeader(DataOutput out, byte kind, int count) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeByte(kind);
+        out.writeInt(count);
+    }
+
+    private static Header readHeader(DataInput in, byte expectedKind) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a Scrubians NPC file");
+        }
+        short version = in.readShort();
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported NPC file version " + version + " (this build reads up to " + VERSION + ")");
+        }
+        byte kind = in.readByte();
+        if (kind != expectedKind) {
+            throw new IOException("Wrong NPC file kind " + kind + ", expected " + expectedKind);
+        }
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Corrupted NPC file (negative record count)");
+        }
+        return new Header(version, count);
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) return null;
+        byte[] utf8 = new byte[length];
+        in.readFully(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    private static void writeStack(DataOutput out, ItemStack stack) throws IOException {
+        if (stack == null || stack.isEmpty()) {
+            out.writeBoolean(false);
+            return;
+        }
+        out.writeBoolean(true);
+        NbtIo.write(ItemStackCache.encodeNbt(stack), out);
+    }
+
+    private static ItemStack readStack(DataInput in) throws IOException {
+        if (!in.readBoolean()) {
+            return ItemStack.EMPTY;
+        }
+        NbtCompound nbt = NbtIo.readCompound(in, NbtSizeTracker.ofUnlimitedBytes());
+        try {
+            return ItemStackCache.decodeNbt(nbt);
+        } catch (IllegalStateException e) {
+            // Failing the read keeps the file as it is; an empty stack would be saved over the item
+            throw new IOException("Trade item could not be decoded: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package ca.techgarage.scrubians.persistence;
+
+import ca.techgarage.scrubians.Scrubians;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import it.unimi.dsi.fastutil.ints.Int2ObjectLinkedOpenHashMap;
+
+import java.io.BufferedReader;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Append-only change log that sits on top of a base registry snapshot.
+ *
+ * Each line is one JSON record: {"op":"put","record":{...}}, {"op":"remove","id":n}
+ * or {"op":"clear"}. Records are appended on the Scrubians I/O thread in submission
+ * order and synced to disk once per batch of queued appends, so a crash loses at
+ * most the records not yet synced (those still queued or in the current batch).
+ * On startup the journal is replayed over the snapshot; compaction folds it back in.
+ *
+ * @param <T> the record type stored in the registry
+ */
+public final class RegistryJournal<T> {
+
+    private final String label;
+    private final Path file;
+    private final Gson gson;
+    private final Class<T> type;
+    private final ToIntFunction<T> idOf;
+    private final Function<T, JsonElement> encoder;
+    private final Function<JsonElement, T> decoder;
+
+    // Records appended since the last compaction (counted on the caller's thread)
+    private final AtomicInteger recordCount = new AtomicInteger();
+
+    // Only touched on the I/O thread
+    private FileOutputStream out;
+    private boolean syncQueued;
+
+    public RegistryJournal(String label, Path file, Gson gson, Class<T> type, ToIntFunction<T> idOf) {
+        this(label, file, gson, type, idOf, null, null);
+    }
+
+    /**
+     * @param encoder writes a record's JSON, for records that carry data Gson cannot see; null for plain Gson
+     * @param decoder reads a record written by the encoder; null for plain Gson
+     */
+    public RegistryJournal(String label, Path file, Gson gson, Class<T> type, ToIntFunction<T> idOf,
+                           Function<T, JsonElement> encoder, Function<JsonElement, T> decoder) {
+        this.label = label;
+        this.file = file;
+        this.gson = gson;
+        this.type = type;
+        this.idOf = idOf;
+        this.encoder = encoder != null ? encoder : record -> gson.toJsonTree(record, type);
+        this.decoder = decoder != null ? decoder : json -> gson.fromJson(json, type);
+    }
+
+    /**
+     * Record a new or updated entry. The record must not be mutated afterwards.
+     */
+    public void appendPut(T record) {
+        recordCount.incrementAndGet();
+        AsyncRegistryWriter.runOnIoThread(() -> {
+            JsonObject entry = new JsonObject();
+            entry.addProperty("op", "put");
+            entry.add("record", encoder.apply(record));
+            write(entry);
+        });
+    }
+
+    public void appendRemove(int id) {
+        recordCount.incrementAndGet();
+        AsyncRegistryWriter.runOnIoThread(() -> {
+            JsonObject entry = new JsonObject();
+            entry.addProperty("op", "remove");
+            entry.addProperty("id", id);
+            write(entry);
+        });
+    }
+
+    public void appendClear() {
+        recordCount.incrementAndGet();
+        AsyncRegistryWriter.runOnIoThread(() -> {
+            JsonObject entry = new JsonObject();
+            entry.addProperty("op", "clear");
+            write(entry);
+        });
+    }
+
+    /**
+     * Fold the journal into a new base snapshot: write the snapshot atomically,
+     * then truncate the journal. Anything appended after this call lands in the
+     * fresh journal, so nothing is lost between the two steps.
+     */
+    public void compact(List<T> snapshot, Path baseFile, Function<List<T>, byte[]> encoder) {
+        int folded = recordCount.getAndSet(0);
+        AsyncRegistryWriter.runOnIoThread(() -> {
+            try {
+                AsyncRegistryWriter.writeAtomically(baseFile, encoder.apply(snapshot));
+                closeStream();
+                Files.write(file, new byte[0]);
+                Scrubians.logger("info", "[Scrubians] Compacted " + folded + " " + label
+                        + " journal records into " + baseFile.getFileName());
+            } catch (Exception e) {
+                // Keep the journal - replaying it over the old snapshot is still correct
+                Scrubians.logger("error", "[Scrubians] Failed to compact " + label + " journal:");
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Apply the journal on top of a freshly loaded base list.
+     * A torn final line (crash mid-append) is ignored; anything before it is kept.
+     *
+     * @return the number of records applied
+     */
+    public int replay(List<T> records) {
+        if (!Files.exists(file)) return 0;
+
+        // Index by id so each put/remove is O(1); kept in list order, puts move to the end
+        Int2ObjectLinkedOpenHashMap<T> byId = new Int2ObjectLinkedOpenHashMap<>(records.size());
+        for (T record : records) {
+            byId.put(idOf.applyAsInt(record), record);
+        }
+
+        int applied = 0;
+        int lineNumber = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) continue;
+
+                try {
+                    if (apply(JsonParser.parseString(line).getAsJsonObject(), byId)) {
+                        applied++;
+                    }
+                } catch (Exception e) {
+                    // Unparseable (cut off by a crash) or missing its op/record/id: skip it, keep the rest
+                    Scrubians.logger("warning", "[Scrubians] Skipping unreadable " + label
+                            + " journal record at line " + lineNumber + ": " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            Scrubians.logger("error", "[Scrubians] Failed to read " + label + " journal: " + e.getMessage());
+        }
+
+        records.clear();
+        records.addAll(byId.values());
+        recordCount.set(applied);
+        return applied;
+    }
+
+    /**
+     * @return false for an unknown op; throws if the record is malformed
+     */
+    private boolean apply(JsonObject entry, Int2ObjectLinkedOpenHashMap<T> records) {
+        JsonElement op = entry.get("op");
+        if (op == null) {
+            throw new IllegalArgumentException("no op");
+        }
+        switch (op.getAsString()) {
+            case "put" -> {
+                JsonElement json = entry.get("record");
+                T record = json != null ? decoder.apply(json) : null;
+                if (record == null) {
+                    throw new IllegalArgumentException("put without a record");
+                }
+                records.putAndMoveToLast(idOf.applyAsInt(record), record);
+            }
+            case "remove" -> {
+                JsonElement idElement = entry.get("id");
+                if (idElement == null) {
+                    throw new IllegalArgumentException("remove without an id");
+                }
+                records.remove(idElement.getAsInt());
+            }
+            case "clear" -> records.clear();
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Records appended since the last compaction.
+     */
+    public int getRecordCount() {
+        return recordCount.get();
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    private void write(JsonObject entry) {
+        try {
+            if (out == null) {
+                truncateTornTail();
+                out = new FileOutputStream(file.toFile(), true);
+            }
+            out.write((entry + "\n").getBytes(StandardCharsets.UTF_8));
+            // Appends already queued run before the sync, so one fsync covers the whole batch
+            if (!syncQueued) {
+                syncQueued = true;
+                AsyncRegistryWriter.runOnIoThread(this::sync);
+            }
+        } catch (IOException e) {
+            Scrubians.logger("error", "[Scrubians] Failed to append to " + label + " journal: " + e.getMessage());
+            closeStream();
+        }
+    }
+
+    private void sync() {
+        syncQueued = false;
+        if (out == null) return;
+        try {
+            out.getFD().sync();
+        } catch (IOException e) {
+            Scrubians.logger("error", "[Scrubians] Failed to sync " + label + " journal: " + e.getMessage());
+            closeStream();
+        }
+    }
+
+    /**
+     * Cut a partial last line (crash mid-append) back to the last newline, so the next
+     * record starts on a line of its own instead of being glued onto the fragment.
+     */
+    private void truncateTornTail() throws IOException {
+        if (!Files.exists(file)) return;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            ByteBuffer buffer = ByteBuffer.allocate(4096);
+            long end = size;
+            while (end > 0) {
+                int length = (int) Math.min(buffer.capacity(), end);
+                long start = end - length;
+                buffer.clear().limit(length);
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, start + buffer.position()) < 0) break;
+                }
+                for (int i = buffer.position() - 1; i >= 0; i--) {
+                    if (buffer.get(i) == '\n') {
+                        truncate(channel, start + i + 1, size);
+                        return;
+                    }
+                }
+                end = start;
+            }
+            truncate(channel, 0, size);
+        }
+    }
+
+    private void truncate(FileChannel channel, long keep, long size) throws IOException {
+        if (keep >= size) return;
+        channel.truncate(keep);
+        Scrubians.logger("warning", "[Scrubians] Dropped " + (size - keep) + " bytes of a partial record at the end of the "
+                + label + " journal");
+    }
+
+    private void closeStream() {
+        if (out == null) return;
+        try {
+            out.getFD().sync();
+            out.close();
+        } catch (IOException ignored) {
+        }
+        out = null;
+    }
+}
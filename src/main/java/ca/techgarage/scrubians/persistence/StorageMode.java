@@ -0,0 +1,41 @@
+package ca.techgarage.scrubians.persistence;
+
+import ca.techgarage.scrubians.Scrubians;
+import ca.techgarage.scrubians.ScrubiansConfig;
+
+/**
+ * How the NPC registries are kept on disk, selected by {@link ScrubiansConfig#npcStorageMode}.
+ */
+public enum StorageMode {
+    /** Pretty-printed JSON, rewritten in full on every save. */
+    JSON,
+    /** JSON base file plus an append-only change journal. */
+    JOURNAL,
+    /** Versioned binary snapshot ({@link NpcBinaryFormat}), rewritten in full on every save. */
+    BINARY,
+    /** Binary header index plus one payload file per chunk region, payloads loaded on demand. */
+    SHARDED;
+
+    /**
+     * @return the configured mode, falling back to JSON for unknown values
+     */
+    public static StorageMode current() {
+        String configured = ScrubiansConfig.npcStorageMode;
+        if (configured != null) {
+            for (StorageMode mode : values()) {
+                if (mode.name().equalsIgnoreCase(configured.trim())) {
+                    return mode;
+                }
+            }
+        }
+        Scrubians.logger("warning", "[Scrubians] Unknown npcStorageMode '" + configured + "', using json");
+        return JSON;
+    }
+
+    /**
+     * @return true if the main registry file is JSON (hand-editable)
+     */
+    public boolean isJsonBased() {
+        return this == JSON || this == JOURNAL;
+    }
+}